@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import io.github.townyadvanced.flagwar.config.BeaconRenderMode;
+import io.github.townyadvanced.flagwar.objects.BeaconFootprint;
+import io.github.townyadvanced.flagwar.objects.Cell;
+import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
+import io.github.townyadvanced.flagwar.util.LongObjectHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only binary journal of active attacks, used to resume them after a restart or crash.
+ * <p>
+ * Registrations, phase changes and removals are encoded on the main thread, then appended by a single background
+ * writer thread, so the main thread never waits on the disk. Once enough records have piled up relative to the number
+ * of live attacks, the journal is compacted: the writer rewrites it aside, holding only the live attacks, and moves it
+ * into place. Records queued after a compaction are appended to the new file, in order.
+ * <p>
+ * On startup, {@link #replay()} folds the journal into the set of attacks which were still live when it was last
+ * written. A record cut short by a crash ends the replay, without failing it.
+ * <p>
+ * Registrations and phase changes also carry how the beacon is rendered, and the positions of the beacon blocks placed
+ * in the world, so a resumed attack only takes over blocks it placed itself.
+ */
+final class AttackJournal {
+
+    /** Identifies a journal file. */
+    private static final int FILE_MAGIC = 0x4657414A;
+    /** Version of the journal file format. */
+    private static final byte FILE_VERSION = 2;
+    /** First version of the journal file format whose registrations and phase changes carry the beacon. */
+    private static final byte BEACON_VERSION = 2;
+    /** Record type of a registered attack. */
+    private static final byte REGISTER = 1;
+    /** Record type of a phase change. */
+    private static final byte PHASE = 2;
+    /** Record type of a removed attack. */
+    private static final byte REMOVE = 3;
+    /** Minimum number of records appended since the last compaction before compacting again. */
+    private static final int COMPACT_THRESHOLD = 1024;
+    /** Records appended since the last compaction must exceed this many times the live attacks to compact. */
+    private static final int COMPACT_RATIO = 4;
+    /** Seconds to wait for queued records to be written when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 5L;
+
+    /** The journal file. */
+    private final File file;
+    /** Logger used to report I/O failures. */
+    private final Logger logger;
+    /** Writer thread. Null until {@link #open(Supplier)}. */
+    private ExecutorService writer;
+    /** Supplies the live attacks when compacting. */
+    private Supplier<Collection<CellUnderAttack>> liveAttacks;
+    /** Stream appending to the journal file. Writer thread only. */
+    private OutputStream out;
+    /** Records appended since the last compaction. Main thread only. */
+    private int appended;
+
+    /** An attack recovered from the journal. */
+    static final class Entry {
+        /** Name of the attack's world. */
+        private final String worldName;
+        /** Cell x coordinate. */
+        private final int cellX;
+        /** Cell z coordinate. */
+        private final int cellZ;
+        /** Flag base block x coordinate. */
+        private final int baseX;
+        /** Flag base block y coordinate. */
+        private final int baseY;
+        /** Flag base block z coordinate. */
+        private final int baseZ;
+        /** UUID of the flag owner. */
+        private final UUID ownerUUID;
+        /** Name of the flag owner. */
+        private final String ownerName;
+        /** Ticks between phases. */
+        private final long phaseInterval;
+        /** Last recorded phase. */
+        private int flagPhaseID;
+        /** Last recorded beacon render mode. */
+        private BeaconRenderMode beaconRender = BeaconRenderMode.WORLD;
+        /** Last recorded positions of the beacon blocks placed in the world, or null. */
+        private BeaconFootprint beacon;
+
+        /**
+         * Read the body of a registration record, up to its beacon.
+         * @param world the name of the attack's world, from the record header.
+         * @param x the cell x coordinate, from the record header.
+         * @param z the cell z coordinate, from the record header.
+         * @param in the journal, positioned after the record header.
+         * @throws IOException if the record cannot be read.
+         */
+        private Entry(final String world, final int x, final int z, final DataInputStream in) throws IOException {
+            this.worldName = world;
+            this.cellX = x;
+            this.cellZ = z;
+            this.baseX = in.readInt();
+            this.baseY = in.readInt();
+            this.baseZ = in.readInt();
+            this.ownerUUID = new UUID(in.readLong(), in.readLong());
+            this.ownerName = in.readUTF();
+            this.phaseInterval = in.readLong();
+            this.flagPhaseID = in.readInt();
+        }
+
+        /** @return the name of the attack's world. */
+        String getWorldName() {
+            return worldName;
+        }
+
+        /** @return the x coordinate of the flag base block. */
+        int getBaseX() {
+            return baseX;
+        }
+
+        /** @return the y coordinate of the flag base block. */
+        int getBaseY() {
+            return baseY;
+        }
+
+        /** @return the z coordinate of the flag base block. */
+        int getBaseZ() {
+            return baseZ;
+        }
+
+        /** @return the UUID of the flag owner. */
+        UUID getOwnerUUID() {
+            return ownerUUID;
+        }
+
+        /** @return the name of the flag owner. */
+        String getOwnerName() {
+            return ownerName;
+        }
+
+        /** @return the number of ticks between phases. */
+        long getPhaseInterval() {
+            return phaseInterval;
+        }
+
+        /** @return the last recorded phase of the flag. */
+        int getFlagPhaseID() {
+            return flagPhaseID;
+        }
+
+        /**
+         * @return the last recorded positions of the beacon blocks placed in the world, or null if the beacon was not
+         * placed in the world.
+         */
+        BeaconFootprint getPlacedBeacon() {
+            return beaconRender == BeaconRenderMode.WORLD ? beacon : null;
+        }
+    }
+
+    /**
+     * Constructs a journal, backed by the given file. Nothing is read or written until {@link #replay()} or
+     * {@link #open(Supplier)}.
+     * @param journalFile the journal file.
+     * @param journalLogger the {@link Logger} to report I/O failures to.
+     */
+    AttackJournal(final File journalFile, final Logger journalLogger) {
+        this.file = journalFile;
+        this.logger = journalLogger;
+    }
+
+    /**
+     * Read the journal, and fold it into the attacks which were still live when it was last written.
+     * @return the live attacks, in registration order. Empty if there is no journal.
+     * @throws IOException if the journal exists but cannot be read, or is not a journal file.
+     */
+    List<Entry> replay() throws IOException {
+        if (!file.exists()) {
+            return List.of();
+        }
+        Map<String, LongObjectHashMap<Entry>> worlds = new HashMap<>();
+        List<Entry> order = new ArrayList<>();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Unrecognized attack journal: " + file.getPath());
+            }
+            byte version = in.readByte();
+            if (version < 1 || version > FILE_VERSION) {
+                throw new IOException("Unsupported attack journal version " + version + ": " + file.getPath());
+            }
+            readRecords(in, worlds, order, version >= BEACON_VERSION);
+        }
+        List<Entry> live = new ArrayList<>(order.size());
+        for (Entry entry : order) {
+            var world = worlds.get(entry.worldName);
+            if (world != null && world.get(Cell.key(entry.cellX, entry.cellZ)) == entry) {
+                live.add(entry);
+            }
+        }
+        return live;
+    }
+
+    private static void readRecords(final DataInputStream in, final Map<String, LongObjectHashMap<Entry>> worlds,
+                                    final List<Entry> order, final boolean withBeacons) throws IOException {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                String world = in.readUTF();
+                int x = in.readInt();
+                int z = in.readInt();
+                long key = Cell.key(x, z);
+                var cells = worlds.computeIfAbsent(world, w -> new LongObjectHashMap<>());
+                if (type == REGISTER) {
+                    var entry = new Entry(world, x, z, in);
+                    if (withBeacons) {
+                        readBeacon(in, entry);
+                    }
+                    cells.put(key, entry);
+                    order.add(entry);
+                } else if (type == PHASE) {
+                    int phase = in.readInt();
+                    var entry = cells.get(key);
+                    if (entry != null) {
+                        entry.flagPhaseID = phase;
+                    }
+                    if (withBeacons) {
+                        readBeacon(in, entry);
+                    }
+                } else if (type == REMOVE) {
+                    cells.remove(key);
+                } else {
+                    throw new IOException("Unknown attack journal record type: " + type);
+                }
+            }
+        } catch (EOFException eof) {
+            // End of the journal, or a record cut short by a crash: everything before it stands.
+        }
+    }
+
+    /**
+     * Read the beacon of a registration or phase change record.
+     * @param in the journal, positioned at the beacon.
+     * @param entry the entry to record the beacon in, or null to skip it.
+     * @throws IOException if the beacon cannot be read.
+     */
+    private static void readBeacon(final DataInputStream in, final Entry entry) throws IOException {
+        BeaconRenderMode render;
+        try {
+            render = BeaconRenderMode.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown beacon render mode in the attack journal.", e);
+        }
+        BeaconFootprint beacon = null;
+        if (in.readBoolean()) {
+            int minX = in.readInt();
+            int minY = in.readInt();
+            int minZ = in.readInt();
+            int span = in.readInt();
+            var words = new long[in.readInt()];
+            for (var i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            beacon = new BeaconFootprint(minX, minY, minZ, span, BitSet.valueOf(words));
+        }
+        if (entry != null) {
+            entry.beaconRender = render;
+            entry.beacon = beacon;
+        }
+    }
+
+    /**
+     * Start the writer thread, and compact the journal down to the currently live attacks. Main thread only.
+     * @param live supplies the live attacks, whenever the journal is compacted.
+     */
+    void open(final Supplier<Collection<CellUnderAttack>> live) {
+        this.liveAttacks = live;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "FlagWar-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compact();
+    }
+
+    /**
+     * Journal a newly registered attack. Main thread only.
+     * @param cell the registered attack.
+     */
+    void registered(final CellUnderAttack cell) {
+        append(encode(buffer -> writeRegister(buffer, cell)));
+    }
+
+    /**
+     * Journal the phase change of an attack. Main thread only.
+     * @param cell the attack.
+     */
+    void phaseChanged(final CellUnderAttack cell) {
+        append(encode(buffer -> {
+            writeHeader(buffer, PHASE, cell);
+            buffer.writeInt(cell.getFlagPhaseID());
+            writeBeacon(buffer, cell);
+        }));
+    }
+
+    /**
+     * Journal the removal of an attack. Main thread only.
+     * @param cell the removed attack.
+     */
+    void removed(final CellUnderAttack cell) {
+        append(encode(buffer -> writeHeader(buffer, REMOVE, cell)));
+    }
+
+    /** Write out every queued record, then stop the writer thread. Waits at most {@link #CLOSE_TIMEOUT_SECONDS}. */
+    void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(this::closeStream);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for the attack journal to be written.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    private void append(final byte[] record) {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(() -> write(record));
+        appended++;
+        if (appended >= COMPACT_THRESHOLD && appended > COMPACT_RATIO * liveAttacks.get().size()) {
+            compact();
+        }
+    }
+
+    /** Encode the live attacks on the main thread, then have the writer rewrite the journal from them. */
+    private void compact() {
+        appended = 0;
+        var live = liveAttacks.get();
+        var records = new ArrayList<byte[]>(live.size());
+        for (CellUnderAttack cell : live) {
+            records.add(encode(buffer -> writeRegister(buffer, cell)));
+        }
+        writer.execute(() -> rewrite(records));
+    }
+
+    /**
+     * Rewrite the journal aside from the given records, move it into place, and append to it from now on.
+     * Writer thread only.
+     * @param records the encoded registrations of every live attack.
+     */
+    private void rewrite(final List<byte[]> records) {
+        closeStream();
+        var temp = new File(file.getPath() + ".tmp");
+        try {
+            try (var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                stream.writeInt(FILE_MAGIC);
+                stream.writeByte(FILE_VERSION);
+                for (byte[] record : records) {
+                    stream.write(record);
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            out = new BufferedOutputStream(Files.newOutputStream(file.toPath(), StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not compact the attack journal.", e);
+        }
+    }
+
+    /**
+     * Append a record to the journal, and flush it to the operating system. Writer thread only.
+     * @param record the encoded record.
+     */
+    private void write(final byte[] record) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.write(record);
+            out.flush();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not write to the attack journal.", e);
+            closeStream();
+        }
+    }
+
+    /** Close the journal stream, if open. Writer thread only. */
+    private void closeStream() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not close the attack journal.", e);
+        }
+        out = null;
+    }
+
+    /** Writes a record to a buffer. */
+    @FunctionalInterface
+    private interface RecordWriter {
+        /**
+         * @param buffer the buffer to write the record to.
+         * @throws IOException never, in practice: the buffer is in memory.
+         */
+        void write(DataOutputStream buffer) throws IOException;
+    }
+
+    private static byte[] encode(final RecordWriter recordWriter) {
+        var bytes = new ByteArrayOutputStream();
+        try (var buffer = new DataOutputStream(bytes)) {
+            recordWriter.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeHeader(final DataOutputStream buffer, final byte type, final CellUnderAttack cell)
+        throws IOException {
+        buffer.writeByte(type);
+        buffer.writeUTF(cell.getWorldName());
+        buffer.writeInt(cell.getX());
+        buffer.writeInt(cell.getZ());
+    }
+
+    private static void writeRegister(final DataOutputStream buffer, final CellUnderAttack cell) throws IOException {
+        writeHeader(buffer, REGISTER, cell);
+        var base = cell.getFlagBaseBlock();
+        buffer.writeInt(base.getX());
+        buffer.writeInt(base.getY());
+        buffer.writeInt(base.getZ());
+        buffer.writeLong(cell.getFlagOwnerUUID().getMostSignificantBits());
+        buffer.writeLong(cell.getFlagOwnerUUID().getLeastSignificantBits());
+        buffer.writeUTF(cell.getNameOfFlagOwner());
+        buffer.writeLong(cell.getFlagPhaseInterval());
+        buffer.writeInt(cell.getFlagPhaseID());
+        writeBeacon(buffer, cell);
+    }
+
+    private static void writeBeacon(final DataOutputStream buffer, final CellUnderAttack cell) throws IOException {
+        buffer.writeUTF(cell.getBeaconRenderMode().name());
+        var beacon = cell.getPlacedBeacon();
+        buffer.writeBoolean(beacon != null);
+        if (beacon == null) {
+            return;
+        }
+        buffer.writeInt(beacon.getMinX());
+        buffer.writeInt(beacon.getMinY());
+        buffer.writeInt(beacon.getMinZ());
+        buffer.writeInt(beacon.getSpan());
+        long[] words = beacon.getMembers().toLongArray();
+        buffer.writeInt(words.length);
+        for (long word : words) {
+            buffer.writeLong(word);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import io.github.townyadvanced.flagwar.objects.Cell;
+import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
+import io.github.townyadvanced.flagwar.util.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Spatial index of every active {@link CellUnderAttack}.
+ * <p>
+ * Each world is interned to a small integer id on first use, and holds its own {@link LongObjectHashMap}, keyed by
+ * the packed (x, z) cell coordinates. Probing the index by world name and block coordinates does not allocate.
+ * <p>
+ * Attacks are also indexed by the UUID of their defending town (see {@link CellUnderAttack#getDefendingTownUUID()}),
+ * so "is under attack" queries do not need to consult Towny. Towns can change nation during an attack, so attacks are
+ * not indexed by nation: nation queries go through the nation's current towns instead.
+ * <p>
+ * Threading: all mutation happens on the server's main thread. Any thread may read. Cell lookups against the primitive
+ * maps are performed in the optimistic read mode of a {@link StampedLock}, retrying if a write overlapped them; readers
+ * never take a lock, so they can never block the main thread. Every other structure is a concurrent collection.
+ * <p>
+ * Every change bumps a version number. Lists handed out by the registry are immutable: the full list is a snapshot
+ * rebuilt lazily, at most once per version, and the per-town lists are replaced on change. Repeated
+ * reads of an unchanged registry allocate nothing.
+ */
+final class AttackRegistry {
+
+    /** Maps world names to their interned ids, used as indexes into {@link #worlds}. */
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    /** Per-world maps of packed cell keys to attacks, indexed by interned world id. Guarded by {@link #lock}. */
+    private final List<LongObjectHashMap<CellUnderAttack>> worlds = new CopyOnWriteArrayList<>();
+    /** Write lock for the per-world maps; readers validate against it optimistically. */
+    private final StampedLock lock = new StampedLock();
+    /** Every active attack. */
+    private final Set<CellUnderAttack> all = ConcurrentHashMap.newKeySet();
+    /** Immutable lists of active attacks, keyed by the UUID of the defending town. */
+    private final Map<UUID, List<CellUnderAttack>> byTown = new ConcurrentHashMap<>();
+    /** Version of the registry, incremented after every change. */
+    private final AtomicLong version = new AtomicLong();
+    /** Latest snapshot of {@link #all}. Replaced when found to be older than {@link #version}. */
+    private volatile Snapshot snapshot = new Snapshot(0L, List.of());
+
+    /** Immutable list of every active attack, tagged with the registry version it was taken at. */
+    private static final class Snapshot {
+        /** Registry version the snapshot was taken at. */
+        private final long version;
+        /** Immutable list of attacks. */
+        private final List<CellUnderAttack> cells;
+
+        private Snapshot(final long snapshotVersion, final List<CellUnderAttack> snapshotCells) {
+            this.version = snapshotVersion;
+            this.cells = snapshotCells;
+        }
+    }
+
+    /**
+     * Get the map of a world, without interning it.
+     * @param worldName the world name.
+     * @return the world's map, or null if no attack was ever registered in the world.
+     */
+    private LongObjectHashMap<CellUnderAttack> world(final String worldName) {
+        Integer id = worldIds.get(worldName);
+        return id == null ? null : worlds.get(id);
+    }
+
+    /**
+     * Get the map of a world, interning the world name if needed.
+     * @param worldName the world name.
+     * @return the world's map.
+     */
+    private LongObjectHashMap<CellUnderAttack> internWorld(final String worldName) {
+        Integer id = worldIds.get(worldName);
+        if (id == null) {
+            id = worlds.size();
+            worlds.add(new LongObjectHashMap<>());
+            worldIds.put(worldName, id);
+        }
+        return worlds.get(id);
+    }
+
+    /**
+     * Look up the attack on a cell.
+     * @param worldName the name of the cell's world.
+     * @param cellKey the cell's coordinates, packed by {@link Cell#key(int, int)}.
+     * @return the attack, or null if the cell is not under attack.
+     */
+    CellUnderAttack get(final String worldName, final long cellKey) {
+        var map = world(worldName);
+        return map == null ? null : read(map, cellKey);
+    }
+
+    /**
+     * Look up the attack on the cell containing a block position.
+     * @param worldName the name of the block's world.
+     * @param blockX the block's x coordinate.
+     * @param blockZ the block's z coordinate.
+     * @return the attack, or null if the block's cell is not under attack.
+     */
+    CellUnderAttack getAtBlock(final String worldName, final int blockX, final int blockZ) {
+        var map = world(worldName);
+        if (map == null || all.isEmpty()) {
+            return null;
+        }
+        return read(map, Cell.keyAt(blockX, blockZ));
+    }
+
+    /**
+     * Read a per-world map in optimistic mode, retrying until no write overlapped the read.
+     * @param map the map to read.
+     * @param key the packed key to look up.
+     * @return the attack, or null if none is mapped to the key.
+     */
+    private CellUnderAttack read(final LongObjectHashMap<CellUnderAttack> map, final long key) {
+        while (true) {
+            long stamp = lock.tryOptimisticRead();
+            var cell = map.optimisticGet(key);
+            if (lock.validate(stamp)) {
+                return cell;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Register an attack, replacing any attack on the same cell. Main thread only.
+     * @param cell the attack to register.
+     */
+    void put(final CellUnderAttack cell) {
+        var map = internWorld(cell.getWorldName());
+        CellUnderAttack previous;
+        long stamp = lock.writeLock();
+        try {
+            previous = map.put(cell.getKey(), cell);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (previous != null) {
+            all.remove(previous);
+            unindex(byTown, previous.getDefendingTownUUID(), previous);
+        }
+        all.add(cell);
+        index(byTown, cell.getDefendingTownUUID(), cell);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Unregister the attack on a cell. Main thread only.
+     * @param cell the attack to unregister.
+     * @return true if the attack was registered.
+     */
+    boolean remove(final CellUnderAttack cell) {
+        var map = world(cell.getWorldName());
+        if (map == null) {
+            return false;
+        }
+        CellUnderAttack removed;
+        long stamp = lock.writeLock();
+        try {
+            removed = map.remove(cell.getKey());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (removed == null) {
+            return false;
+        }
+        all.remove(removed);
+        unindex(byTown, removed.getDefendingTownUUID(), removed);
+        version.incrementAndGet();
+        return true;
+    }
+
+    private static void index(final Map<UUID, List<CellUnderAttack>> index, final UUID uuid,
+                              final CellUnderAttack cell) {
+        if (uuid == null) {
+            return;
+        }
+        var cells = new ArrayList<>(index.getOrDefault(uuid, List.of()));
+        cells.add(cell);
+        index.put(uuid, List.copyOf(cells));
+    }
+
+    private static void unindex(final Map<UUID, List<CellUnderAttack>> index, final UUID uuid,
+                                final CellUnderAttack cell) {
+        if (uuid == null) {
+            return;
+        }
+        var cells = new ArrayList<>(index.getOrDefault(uuid, List.of()));
+        if (!cells.remove(cell)) {
+            return;
+        }
+        if (cells.isEmpty()) {
+            index.remove(uuid);
+        } else {
+            index.put(uuid, List.copyOf(cells));
+        }
+    }
+
+    /**
+     * @param townUUID the UUID of a town.
+     * @return true if any registered attack is defended by the town.
+     */
+    boolean isTownUnderAttack(final UUID townUUID) {
+        return byTown.containsKey(townUUID);
+    }
+
+    /**
+     * @param townUUIDs the UUIDs of some towns, such as the current towns of a nation.
+     * @return true if any registered attack is defended by one of the towns.
+     */
+    boolean isAnyTownUnderAttack(final Collection<UUID> townUUIDs) {
+        for (UUID townUUID : townUUIDs) {
+            if (byTown.containsKey(townUUID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param townUUID the UUID of a town.
+     * @return an immutable list of the attacks defended by the town. May be empty, never null.
+     */
+    List<CellUnderAttack> getByTown(final UUID townUUID) {
+        return byTown.getOrDefault(townUUID, List.of());
+    }
+
+    /**
+     * @param townUUIDs the UUIDs of some towns, such as the current towns of a nation.
+     * @return an immutable list of the attacks defended by the towns. May be empty, never null.
+     */
+    List<CellUnderAttack> getByTowns(final Collection<UUID> townUUIDs) {
+        List<CellUnderAttack> found = null;
+        List<CellUnderAttack> only = List.of();
+        for (UUID townUUID : townUUIDs) {
+            var cells = byTown.get(townUUID);
+            if (cells == null) {
+                continue;
+            }
+            if (only.isEmpty()) {
+                // A single defending town: hand out its list as is.
+                only = cells;
+                continue;
+            }
+            if (found == null) {
+                found = new ArrayList<>(only);
+            }
+            found.addAll(cells);
+        }
+        return found == null ? only : List.copyOf(found);
+    }
+
+    /**
+     * Get an immutable snapshot of every registered attack. The snapshot is only rebuilt if the registry changed
+     * since the last call.
+     * @return an immutable list holding every registered attack.
+     */
+    List<CellUnderAttack> values() {
+        var snap = snapshot;
+        // Read the version before copying: changes are applied before the version is bumped, so the copy is at
+        // least as recent as the version it gets tagged with.
+        long current = version.get();
+        if (snap.version != current) {
+            snap = new Snapshot(current, List.copyOf(all));
+            snapshot = snap;
+        }
+        return snap.cells;
+    }
+
+    /** @return the current version of the registry, incremented every time an attack is registered or removed. */
+    long version() {
+        return version.get();
+    }
+
+    /** @return the number of registered attacks. */
+    int size() {
+        return all.size();
+    }
+}
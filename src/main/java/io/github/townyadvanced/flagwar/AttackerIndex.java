@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of active attacks, keyed by the UUID of the attacking player.
+ * <p>
+ * Each attacker carries its own flag counter, so checking a player's active flag count is a single map lookup and a
+ * field read. A secondary name index serves legacy, name-based API calls. As with {@link AttackRegistry}, mutation
+ * happens on the main thread only, while reads are safe from any thread.
+ */
+final class AttackerIndex {
+
+    /** Attackers with at least one active flag, keyed by player UUID. */
+    private final Map<UUID, Attacker> attackers = new ConcurrentHashMap<>();
+    /** UUIDs of attackers with at least one active flag, keyed by the player name they attacked with. */
+    private final Map<String, UUID> names = new ConcurrentHashMap<>();
+
+    /** An attacking player, and the flags they currently have in play. */
+    private static final class Attacker {
+        /** Immutable list of the attacker's active flags, replaced on change. */
+        private volatile List<CellUnderAttack> cells = List.of();
+        /** Number of the attacker's active flags. */
+        private volatile int activeFlags;
+    }
+
+    /**
+     * @param uuid the UUID of a player.
+     * @return the number of flags the player has in play.
+     */
+    int getNumActiveFlags(final UUID uuid) {
+        var attacker = attackers.get(uuid);
+        return attacker == null ? 0 : attacker.activeFlags;
+    }
+
+    /**
+     * @param uuid the UUID of a player.
+     * @return an immutable list of the flags the player has in play. May be empty, never null.
+     */
+    List<CellUnderAttack> getCells(final UUID uuid) {
+        var attacker = attackers.get(uuid);
+        return attacker == null ? List.of() : attacker.cells;
+    }
+
+    /**
+     * @param playerName the name of a player.
+     * @return the UUID of the player, if they currently have flags in play; otherwise null.
+     */
+    UUID getUUID(final String playerName) {
+        return names.get(playerName);
+    }
+
+    /**
+     * Add an attack to its owner's flags. Main thread only.
+     * @param cell the attack to add.
+     */
+    void add(final CellUnderAttack cell) {
+        var uuid = cell.getFlagOwnerUUID();
+        var attacker = attackers.computeIfAbsent(uuid, k -> new Attacker());
+        var cells = new ArrayList<>(attacker.cells);
+        cells.add(cell);
+        attacker.cells = List.copyOf(cells);
+        attacker.activeFlags = attacker.activeFlags + 1;
+        names.put(cell.getNameOfFlagOwner(), uuid);
+    }
+
+    /**
+     * Remove an attack from its owner's flags. Main thread only.
+     * @param cell the attack to remove.
+     */
+    void remove(final CellUnderAttack cell) {
+        var uuid = cell.getFlagOwnerUUID();
+        var attacker = attackers.get(uuid);
+        if (attacker == null) {
+            return;
+        }
+        var cells = new ArrayList<>(attacker.cells);
+        if (!cells.remove(cell)) {
+            return;
+        }
+        if (cells.isEmpty()) {
+            attackers.remove(uuid);
+            names.remove(cell.getNameOfFlagOwner(), uuid);
+        } else {
+            attacker.cells = List.copyOf(cells);
+        }
+        attacker.activeFlags = attacker.activeFlags - 1;
+    }
+}
@@ -18,12 +18,12 @@
 package io.github.townyadvanced.flagwar;
 
 import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
-import java.util.TimerTask;
 
 /**
- * Each {@link CellUnderAttack}'s attack thread, extending the {@link TimerTask}.
+ * Each {@link CellUnderAttack}'s phase task, run by FlagWar's shared flag timer (see
+ * {@link FlagWar#scheduleFlagTimer(Runnable, long)}) once every phase interval.
  */
-public class CellAttackThread extends TimerTask {
+public class CellAttackThread implements Runnable {
 
     /** Holds the relevant {@link CellUnderAttack}, assigned by the constructor. */
     private final CellUnderAttack cell;
@@ -39,7 +39,7 @@ public class CellAttackThread extends TimerTask {
 
     /**
      * Updates the war flag within the {@link CellUnderAttack}, and if {@link CellUnderAttack#hasEnded()} becomes true,
-     * runs {@link FlagWar#attackWon(CellUnderAttack)}.
+     * runs {@link FlagWar#attackWon(CellUnderAttack)}. Otherwise, journals the new phase.
      */
     @Override
     public void run() {
@@ -47,6 +47,8 @@ public class CellAttackThread extends TimerTask {
         cell.changeFlag();
         if (cell.hasEnded()) {
             FlagWar.attackWon(cell);
+        } else {
+            FlagWar.attackPhaseChanged(cell);
         }
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Renders war beacons client-side: beacon blocks are sent to nearby players as fake block changes, through
+ * {@link Player#sendBlockChange(org.bukkit.Location, BlockData)}, and never placed in the world.
+ * <p>
+ * A beacon is sent to a player once they are within the server's view distance of it, and sent again whenever they
+ * join, teleport, change worlds, respawn, or come back into range. Players out of range are forgotten, since their
+ * client drops the fake blocks along with the chunk.
+ * <p>
+ * Main thread only.
+ */
+public final class ClientBeaconRenderer {
+
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+    /** Ticks to wait after a player joins or teleports before sending beacons, so they arrive after the chunks. */
+    private static final long RESEND_DELAY_TICKS = 10L;
+
+    /** Players each client-side beacon is currently shown to, by beacon. */
+    private final Map<CellUnderAttack, Set<UUID>> viewers = new HashMap<>();
+    /** Cached {@link BlockData}, by material. */
+    private final Map<Material, BlockData> blockData = new EnumMap<>(Material.class);
+
+    /**
+     * Start rendering a beacon, showing it to every player in range.
+     * @param cell the attack whose beacon to render.
+     */
+    public void show(final CellUnderAttack cell) {
+        viewers.put(cell, new HashSet<>());
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (isInRange(player, cell)) {
+                send(player, cell);
+            }
+        }
+    }
+
+    /**
+     * Send the current phase of a beacon's flag blocks to everyone it is shown to.
+     * @param cell the attack whose beacon changed phase.
+     */
+    public void update(final CellUnderAttack cell) {
+        var shownTo = viewers.get(cell);
+        if (shownTo == null || shownTo.isEmpty()) {
+            return;
+        }
+        var phaseData = phaseData(cell);
+        if (phaseData == null) {
+            return;
+        }
+        for (UUID uuid : shownTo) {
+            var player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                sendAll(player, cell.getBeaconFlagBlocks(), phaseData);
+            }
+        }
+    }
+
+    /**
+     * Stop rendering a beacon, and restore the real blocks at its positions on the clients it was shown to. Blocks
+     * placed there while the beacon was shown are sent as they are, rather than as air.
+     * @param cell the attack whose beacon to remove.
+     */
+    public void hide(final CellUnderAttack cell) {
+        var shownTo = viewers.remove(cell);
+        if (shownTo == null) {
+            return;
+        }
+        List<Player> players = new ArrayList<>(shownTo.size());
+        for (UUID uuid : shownTo) {
+            var player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                players.add(player);
+            }
+        }
+        if (players.isEmpty()) {
+            return;
+        }
+        sendReal(players, cell.getBeaconWireframeBlocks());
+        sendReal(players, cell.getBeaconFlagBlocks());
+    }
+
+    private static void sendReal(final List<Player> players, final List<Block> blocks) {
+        for (Block block : blocks) {
+            var location = block.getLocation();
+            var data = block.getBlockData();
+            for (Player player : players) {
+                player.sendBlockChange(location, data);
+            }
+        }
+    }
+
+    /**
+     * Show a player every beacon in range which they have not been shown yet, and forget the beacons they left.
+     * @param player the player to refresh.
+     */
+    public void refresh(final Player player) {
+        var uuid = player.getUniqueId();
+        for (Map.Entry<CellUnderAttack, Set<UUID>> entry : viewers.entrySet()) {
+            if (isInRange(player, entry.getKey())) {
+                if (!entry.getValue().contains(uuid)) {
+                    send(player, entry.getKey());
+                }
+            } else {
+                entry.getValue().remove(uuid);
+            }
+        }
+    }
+
+    /**
+     * Forget what a player was shown, then show them every beacon in range again, once their client has had time to
+     * receive the surrounding chunks. Used on join, teleport, world change and respawn.
+     * @param player the player to resend beacons to.
+     */
+    public void resend(final Player player) {
+        forget(player);
+        Bukkit.getScheduler().runTaskLater(FlagWar.getInstance(), () -> {
+            if (player.isOnline()) {
+                refresh(player);
+            }
+        }, RESEND_DELAY_TICKS);
+    }
+
+    /**
+     * Forget every beacon shown to a player.
+     * @param player the player, usually one leaving the server.
+     */
+    public void forget(final Player player) {
+        var uuid = player.getUniqueId();
+        for (Set<UUID> shownTo : viewers.values()) {
+            shownTo.remove(uuid);
+        }
+    }
+
+    private void send(final Player player, final CellUnderAttack cell) {
+        viewers.get(cell).add(player.getUniqueId());
+        sendAll(player, cell.getBeaconWireframeBlocks(), data(FlagWarConfig.getBeaconWireFrameMaterial()));
+        var phaseData = phaseData(cell);
+        if (phaseData != null) {
+            sendAll(player, cell.getBeaconFlagBlocks(), phaseData);
+        }
+    }
+
+    private static void sendAll(final Player player, final List<Block> blocks, final BlockData data) {
+        for (Block block : blocks) {
+            player.sendBlockChange(block.getLocation(), data);
+        }
+    }
+
+    /**
+     * @param cell an attack.
+     * @return the block data of the attack's current timer phase, or null if the attack has ended.
+     */
+    private BlockData phaseData(final CellUnderAttack cell) {
+        int phase = cell.getFlagPhaseID();
+        return phase < FlagWarConfig.getTimerBlockCount() ? data(FlagWarConfig.getTimerBlock(phase)) : null;
+    }
+
+    private BlockData data(final Material material) {
+        return blockData.computeIfAbsent(material, Material::createBlockData);
+    }
+
+    /**
+     * @param player a player.
+     * @param cell an attack.
+     * @return true if the player is in the attack's world, and within the server's view distance of its flag.
+     */
+    private static boolean isInRange(final Player player, final CellUnderAttack cell) {
+        var flag = cell.getFlagBaseBlock();
+        var location = player.getLocation();
+        if (!flag.getWorld().equals(location.getWorld())) {
+            return false;
+        }
+        int dx = Math.abs((location.getBlockX() >> CHUNK_SHIFT) - (flag.getX() >> CHUNK_SHIFT));
+        int dz = Math.abs((location.getBlockZ() >> CHUNK_SHIFT) - (flag.getZ() >> CHUNK_SHIFT));
+        return Math.max(dx, dz) < Bukkit.getViewDistance();
+    }
+}
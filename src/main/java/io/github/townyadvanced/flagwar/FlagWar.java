@@ -29,9 +29,12 @@ import com.palmergames.bukkit.towny.object.Resident;
 import com.palmergames.bukkit.towny.object.Town;
 import com.palmergames.bukkit.towny.object.TownBlock;
 import com.palmergames.bukkit.towny.object.WorldCoord;
+import com.palmergames.bukkit.towny.object.metadata.BooleanDataField;
 import com.palmergames.bukkit.towny.utils.AreaSelectionUtil;
 import com.palmergames.bukkit.util.Version;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.townyadvanced.flagwar.commands.FlagWarCommand;
+import io.github.townyadvanced.flagwar.config.BroadcastScope;
 import io.github.townyadvanced.flagwar.config.ConfigLoader;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
 import io.github.townyadvanced.flagwar.events.CellAttackCanceledEvent;
@@ -41,24 +44,41 @@ import io.github.townyadvanced.flagwar.events.CellWonEvent;
 import io.github.townyadvanced.flagwar.i18n.LocaleUtil;
 import io.github.townyadvanced.flagwar.i18n.Translate;
 import io.github.townyadvanced.flagwar.listeners.FlagWarBlockListener;
+import io.github.townyadvanced.flagwar.listeners.FlagWarChunkListener;
 import io.github.townyadvanced.flagwar.listeners.FlagWarCustomListener;
 import io.github.townyadvanced.flagwar.listeners.FlagWarEntityListener;
+import io.github.townyadvanced.flagwar.listeners.FlagWarPlayerListener;
 import io.github.townyadvanced.flagwar.objects.Cell;
 import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
-
+import io.github.townyadvanced.flagwar.util.BlockWriteQueue;
+import io.github.townyadvanced.flagwar.util.BroadcastAggregator;
+import io.github.townyadvanced.flagwar.util.Messaging;
+import io.github.townyadvanced.flagwar.util.OnlineMemberIndex;
+import io.github.townyadvanced.flagwar.util.PlayerGrid;
+import io.github.townyadvanced.flagwar.util.ProtectedBlockIndex;
+import io.github.townyadvanced.flagwar.util.TimingWheel;
+
+import java.io.File;
 import java.io.IOException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
 import org.bukkit.plugin.Plugin;
@@ -72,12 +92,34 @@ public class FlagWar extends JavaPlugin {
 
     /** Holds the Bukkit {@link PluginManager}. */
     private static final PluginManager PLUGIN_MANAGER = Bukkit.getPluginManager();
-    /** Holds a hashmap of all active {@link CellUnderAttack}. **/
-    private static final Map<Cell, CellUnderAttack> ATTACK_HASH_MAP = new HashMap<>();
-    /** Holds a map of {@link Player}s and a list of {@link CellUnderAttack} flagged by them. */
-    private static final Map<String, List<CellUnderAttack>> PLAYER_ATTACK_HASH_MAP = new HashMap<>();
-    /** Holds a map of {@link Town}s, and when they were last flagged. */
-    private static final Map<Town, Long> TOWN_LAST_FLAGGED_HASH_MAP = new HashMap<>();
+    /** Holds a spatial index of all active {@link CellUnderAttack}. **/
+    private static final AttackRegistry ATTACK_REGISTRY = new AttackRegistry();
+    /** Holds an index of {@link Player}s (by UUID) and the {@link CellUnderAttack}s flagged by them. */
+    private static final AttackerIndex ATTACKER_INDEX = new AttackerIndex();
+    /** Holds when {@link Town}s (by UUID) were last flagged, until their post-flag cooldown passes. */
+    private static final TownCooldownTracker TOWN_COOLDOWNS = new TownCooldownTracker();
+    /** Queue of flag and beacon block changes, applied within a per-tick budget. */
+    private static final BlockWriteQueue BLOCK_WRITES = new BlockWriteQueue();
+    /** Renders beacons as fake, per-player blocks, when 'beacon.render' is set to 'client'. */
+    private static final ClientBeaconRenderer CLIENT_BEACONS = new ClientBeaconRenderer();
+    /** Exact positions of every flag and world-rendered beacon block, checked first by {@link #checkBlock}. */
+    private static final ProtectedBlockIndex PROTECTED_BLOCKS = new ProtectedBlockIndex();
+    /** Renders beacons as particles, when 'beacon.render' is set to 'particle'. */
+    private static final ParticleBeaconRenderer PARTICLE_BEACONS = new ParticleBeaconRenderer();
+    /** Grid of the online players, by world and chunk, used to resolve scoped broadcasts. */
+    private static final PlayerGrid PLAYER_GRID = new PlayerGrid();
+    /** Index of the online members of each town, used to resolve scoped broadcasts and defence alerts. */
+    private static final OnlineMemberIndex ONLINE_MEMBERS = new OnlineMemberIndex();
+    /** Buffers war announcements, and broadcasts them merged into summary lines. */
+    private static final BroadcastAggregator BROADCASTS = new BroadcastAggregator();
+    /** Name of the file {@link #TOWN_COOLDOWNS} are persisted to, within the plugin's data folder. */
+    private static final String COOLDOWNS_FILE = "cooldowns.dat";
+    /** Name of the file the {@link AttackJournal} is kept in, within the plugin's data folder. */
+    private static final String JOURNAL_FILE = "attacks.journal";
+    /** Interval, in ticks, between purges of expired {@link #TOWN_COOLDOWNS}. One minute. */
+    private static final long COOLDOWN_PURGE_TICKS = 1200L;
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
     /** FlagWar Copyright String. */
     private static final String FW_COPYRIGHT = "Copyright \u00a9 2021 TownyAdvanced";
     /** Version object for storing the minimum required version of Towny for compatibility. */
@@ -86,13 +128,21 @@ public class FlagWar extends JavaPlugin {
     private static final double MIN_CONFIG_VER = 1.2;
     /** BStats Metrics ID. */
     public static final int METRICS_ID = 10325;
+    /** Key of the Resident metadata holding whether they receive defence alerts. */
+    public static final String ALERTS_META_KEY = "flagwar_alerts";
 
     /** Stores instance of Plugin, for easy operations. */
     private static Plugin plugin;
+    /** Drives the phase timers of every {@link CellUnderAttack}. Advanced once per tick, by a single task. */
+    private static TimingWheel flagTimers;
+    /** Journal of active attacks, used to resume them after a restart. */
+    private static AttackJournal attackJournal;
     /** Holds FlagWar's Bukkit-assigned JUL {@link Logger}. */
     private final Logger flagWarLogger;
     /** Holds FlagWar's {@link ConfigLoader}. */
     private final ConfigLoader configLoader;
+    /** True once the {@link #TOWN_COOLDOWNS} were loaded, and may be saved back on disable. */
+    private boolean cooldownsLoaded;
 
     /** Holds instance of the {@link FlagWarBlockListener}. */
     private FlagWarBlockListener flagWarBlockListener;
@@ -100,6 +150,10 @@ public class FlagWar extends JavaPlugin {
     private FlagWarCustomListener flagWarCustomListener;
     /** Holds instance of the {@link FlagWarEntityListener}. */
     private FlagWarEntityListener flagWarEntityListener;
+    /** Holds instance of the {@link FlagWarChunkListener}. */
+    private FlagWarChunkListener flagWarChunkListener;
+    /** Holds instance of the {@link FlagWarPlayerListener}. */
+    private FlagWarPlayerListener flagWarPlayerListener;
     //** Holds instance of the {@link WarzoneListener}. */
     //private WarzoneListener warzoneListener;    // DISABLED, BUGGY - Disabled due to issue with onBuild and onDestroy
                                                   // resolving in wilderness.
@@ -119,6 +173,7 @@ public class FlagWar extends JavaPlugin {
 
         try {
             configLoader.loadConfig(MIN_CONFIG_VER);
+            FlagWarConfig.compile(getConfig());
         } catch (IOException e) {
             flagWarLogger.severe(e.getMessage());
             e.printStackTrace();
@@ -135,7 +190,14 @@ public class FlagWar extends JavaPlugin {
         checkTowny();
         initializeListeners();
         loadFlagWarMaterials();
+        loadCooldowns();
+        startFlagTimers();
+        startBlockWriter();
+        startParticleBeacons();
+        startBroadcasts();
+        resumeAttacks();
         registerEvents();
+        registerCommands();
         bStatsKickstart();
     }
 
@@ -145,14 +207,133 @@ public class FlagWar extends JavaPlugin {
      */
     @Override
     public void onDisable() {
-        flagWarLogger.log(Level.INFO, () -> Translate.from("shutdown.cancel-all"));
+        BROADCASTS.flush();
+        if (attackJournal != null) {
+            suspendAttacks();
+        }
+        saveCooldowns();
+    }
+
+    /**
+     * Take down the flags and warzones of every active attack, without ending the attacks: they stay in the
+     * {@link #attackJournal}, and are resumed by {@link #resumeAttacks()} on the next startup. Towny only keeps
+     * warzones in memory, so they are removed here and added back on resume.
+     */
+    private void suspendAttacks() {
+        List<CellUnderAttack> cells = ATTACK_REGISTRY.values();
+        flagWarLogger.log(Level.INFO, () -> Translate.from("shutdown.journal-attacks", cells.size()));
+        var towny = Towny.getPlugin();
+        var townyUniverse = TownyUniverse.getInstance();
+        for (CellUnderAttack cell : cells) {
+            cell.cancel();
+            removeWarzoneAndUpdateCache(towny, cellToWorldCoordinate(cell), townyUniverse);
+        }
+        BLOCK_WRITES.drainAll();
+        attackJournal.close();
+        attackJournal = null;
+    }
 
+    /** Replay the {@link #attackJournal}, resume every attack still live in it, then start journaling again. */
+    private void resumeAttacks() {
+        attackJournal = new AttackJournal(new File(getDataFolder(), JOURNAL_FILE), flagWarLogger);
+        List<AttackJournal.Entry> entries = List.of();
         try {
-            for (CellUnderAttack cell : new ArrayList<>(ATTACK_HASH_MAP.values())) {
-                attackCanceled(cell);
+            entries = attackJournal.replay();
+        } catch (IOException e) {
+            flagWarLogger.severe(e.getMessage());
+        }
+        var resumed = 0;
+        for (AttackJournal.Entry entry : entries) {
+            if (resumeAttack(entry)) {
+                resumed++;
             }
-        } catch (NullPointerException npe) {
-            npe.printStackTrace();
+        }
+        attackJournal.open(ATTACK_REGISTRY::values);
+        if (resumed > 0) {
+            final int count = resumed;
+            flagWarLogger.log(Level.INFO, () -> Translate.from("startup.attacks-resumed", count));
+        }
+    }
+
+    /**
+     * Re-register a journaled attack, turn its cell back into a warzone, and redraw its flag at the recorded phase. No
+     * events are fired, and the flag limit is not checked again: the attack was already accepted before the restart.
+     * @param entry the journaled attack.
+     * @return true if the attack was resumed; false if its world is gone, or its cell is no longer claimed.
+     */
+    private static boolean resumeAttack(final AttackJournal.Entry entry) {
+        var world = Bukkit.getWorld(entry.getWorldName());
+        if (world == null) {
+            return false;
+        }
+        var cell = new CellUnderAttack(Towny.getPlugin(), entry.getOwnerName(), entry.getOwnerUUID(),
+            world.getBlockAt(entry.getBaseX(), entry.getBaseY(), entry.getBaseZ()), entry.getPhaseInterval());
+        if (ATTACK_REGISTRY.get(cell.getWorldName(), cell.getKey()) != null) {
+            return false;
+        }
+        resolveDefenders(cell);
+        if (cell.getDefendingTownUUID() == null) {
+            return false;
+        }
+        ATTACKER_INDEX.add(cell);
+        ATTACK_REGISTRY.put(cell);
+        addWarzoneAndUpdateCache(Towny.getPlugin(), cellToWorldCoordinate(cell), TownyUniverse.getInstance());
+        cell.resumeAttack(entry.getFlagPhaseID(), entry.getPlacedBeacon());
+        return true;
+    }
+
+    /** Load the {@link #TOWN_COOLDOWNS} from disk, and schedule the periodic purge of expired entries. */
+    private void loadCooldowns() {
+        try {
+            TOWN_COOLDOWNS.load(new File(getDataFolder(), COOLDOWNS_FILE), System.currentTimeMillis(),
+                FlagWarConfig.getTimeToWaitAfterFlagged());
+        } catch (IOException e) {
+            flagWarLogger.severe(e.getMessage());
+        }
+        cooldownsLoaded = true;
+        Bukkit.getScheduler().runTaskTimer(this, () -> TOWN_COOLDOWNS.purgeExpired(System.currentTimeMillis(),
+            FlagWarConfig.getTimeToWaitAfterFlagged()), COOLDOWN_PURGE_TICKS, COOLDOWN_PURGE_TICKS);
+    }
+
+    /** Create the {@link #flagTimers}, and schedule the one repeating task which advances them every tick. */
+    private void startFlagTimers() {
+        flagTimers = new TimingWheel(flagWarLogger);
+        Bukkit.getScheduler().runTaskTimer(this, flagTimers::tick, 1L, 1L);
+    }
+
+    /** Schedule the repeating task which applies the {@link #BLOCK_WRITES} every tick, within the configured budget. */
+    private void startBlockWriter() {
+        Bukkit.getScheduler().runTaskTimer(this, () -> BLOCK_WRITES.drain(FlagWarConfig.getMaxBlockWritesPerTick(),
+            FlagWarConfig.getMaxBlockWriteNanosPerTick()), 1L, 1L);
+    }
+
+    /** Schedule the repeating task which emits the {@link #PARTICLE_BEACONS} every tick, within their budget. */
+    private void startParticleBeacons() {
+        Bukkit.getScheduler().runTaskTimer(this, PARTICLE_BEACONS::tick, 1L, 1L);
+    }
+
+    /**
+     * Fill the {@link #PLAYER_GRID} and {@link #ONLINE_MEMBERS} with the players already online, then schedule the
+     * repeating task which flushes the {@link #BROADCASTS} once their window has passed.
+     */
+    private void startBroadcasts() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PLAYER_GRID.update(player, player.getLocation());
+            ONLINE_MEMBERS.update(player, getTownUUID(player));
+        }
+        Bukkit.getScheduler().runTaskTimer(this, BROADCASTS::tick, 1L, 1L);
+    }
+
+    /** Save the {@link #TOWN_COOLDOWNS} to disk, if they were loaded this session. */
+    private void saveCooldowns() {
+        if (!cooldownsLoaded) {
+            return;
+        }
+        try {
+            TOWN_COOLDOWNS.save(new File(getDataFolder(), COOLDOWNS_FILE), System.currentTimeMillis(),
+                FlagWarConfig.getTimeToWaitAfterFlagged());
+        } catch (IOException e) {
+            flagWarLogger.severe(e.getMessage());
         }
     }
 
@@ -199,16 +380,59 @@ public class FlagWar extends JavaPlugin {
         PLUGIN_MANAGER.registerEvents(flagWarBlockListener, this);
         PLUGIN_MANAGER.registerEvents(flagWarCustomListener, this);
         PLUGIN_MANAGER.registerEvents(flagWarEntityListener, this);
+        PLUGIN_MANAGER.registerEvents(flagWarChunkListener, this);
+        PLUGIN_MANAGER.registerEvents(flagWarPlayerListener, this);
         //PLUGIN_MANAGER.registerEvents(warzoneListener, this); // Disabled due to bug
         flagWarLogger.log(Level.INFO, () -> Translate.from("startup.events.registered"));
     }
 
+    /** Register FlagWar's command executors, as declared in plugin.yml. */
+    private void registerCommands() {
+        var flagWarCommand = new FlagWarCommand(this);
+        var command = Objects.requireNonNull(getCommand("flagwar"));
+        command.setExecutor(flagWarCommand);
+        command.setTabCompleter(flagWarCommand);
+    }
+
+    /**
+     * Reload config.yml from disk, and atomically swap in a newly compiled {@link FlagWarConfig#getSnapshot()}.
+     * Active attacks carry on, keeping the phase interval and beacon they started with. Flag and beacon materials
+     * are only loaded on startup. Translations are reloaded and recompiled too, for the configured locale.
+     * The file is parsed into a fresh {@link YamlConfiguration} first, so a malformed file is reported instead of
+     * silently loading as empty, and {@link #getConfig()} is only overwritten once it has compiled.
+     * @throws IllegalArgumentException if the reloaded configuration cannot be read, parsed or compiled. The previous
+     * one is kept.
+     */
+    public void reloadFlagWarConfig() {
+        var reloaded = new YamlConfiguration();
+        try {
+            reloaded.load(new File(getDataFolder(), "config.yml"));
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        var config = getConfig();
+        if (config.getDefaults() != null) {
+            reloaded.setDefaults(config.getDefaults());
+        }
+        FlagWarConfig.compile(reloaded);
+
+        for (var key : config.getKeys(false)) {
+            config.set(key, null);
+        }
+        for (var key : reloaded.getKeys(false)) {
+            config.set(key, reloaded.get(key));
+        }
+        setLocale();
+    }
+
     /** Initialize Event Listeners. */
     private void initializeListeners() {
         flagWarLogger.log(Level.INFO, () -> Translate.from("startup.listeners.initialize"));
         flagWarBlockListener = new FlagWarBlockListener(this);
         flagWarCustomListener = new FlagWarCustomListener(this);
         flagWarEntityListener = new FlagWarEntityListener();
+        flagWarChunkListener = new FlagWarChunkListener();
+        flagWarPlayerListener = new FlagWarPlayerListener();
         // warzoneListener = new WarzoneListener(); // Disabled due to bug
         flagWarLogger.log(Level.INFO, () -> Translate.from("startup.listeners.initialized"));
     }
@@ -232,36 +456,70 @@ public class FlagWar extends JavaPlugin {
     }
 
     /**
-     * Function to register an attack to a player (by running through
-     * {@link #addFlagToPlayerCount(String, CellUnderAttack)}), add it to the {@link #ATTACK_HASH_MAP}, and run
+     * Function to register an attack to a player (by adding it to the {@link #ATTACKER_INDEX}), add it to the
+     * {@link #ATTACK_REGISTRY}, and run
      * {@link CellUnderAttack#beginAttack()}.
      *
      * @param cell CellUnderAttack to process.
      * @throws TownyException if the Player's active flags would become greater than the Maximum per Player.
-     * @throws TownyException if the attackCell is already registered in the {@link #ATTACK_HASH_MAP}.
+     * @throws TownyException if the attackCell is already registered in the {@link #ATTACK_REGISTRY}. Both are
+     * rendered in the flag owner's locale.
+     * @throws IllegalStateException if called from outside the server's main thread.
      */
     public static void registerAttack(final CellUnderAttack cell) throws TownyException {
+        checkMainThread();
 
-        CellUnderAttack attackCell = ATTACK_HASH_MAP.get(cell);
-        String playerName = cell.getNameOfFlagOwner();
-        checkCellAlreadyRegistered(attackCell);
-        checkPlayerActiveFlagLimit(playerName);
+        var locale = LocaleUtil.getLocale(Bukkit.getPlayer(cell.getFlagOwnerUUID()));
+        CellUnderAttack attackCell = ATTACK_REGISTRY.get(cell.getWorldName(), cell.getKey());
+        checkCellAlreadyRegistered(attackCell, locale);
+        checkPlayerActiveFlagLimit(cell.getFlagOwnerUUID(), locale);
 
-        addFlagToPlayerCount(playerName, cell);
-        ATTACK_HASH_MAP.put(cell, cell);
+        resolveDefenders(cell);
+        ATTACKER_INDEX.add(cell);
+        ATTACK_REGISTRY.put(cell);
         cell.beginAttack();
+        attackJournal.registered(cell);
+    }
+
+    /**
+     * Guards registry mutation. Reads are safe from any thread, but writes must stay on the main thread.
+     * @throws IllegalStateException if called from outside the server's main thread.
+     */
+    private static void checkMainThread() {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("FlagWar attacks may only be modified from the main thread.");
+        }
+    }
+
+    /**
+     * Look up the defending {@link Town} of a {@link CellUnderAttack} once, so the attack can be indexed by its
+     * defenders.
+     * @param cell the CellUnderAttack being registered.
+     */
+    private static void resolveDefenders(final CellUnderAttack cell) {
+        var townBlock = TownyAPI.getInstance().getTownBlock(cell.getFlagBaseBlock().getLocation());
+        if (townBlock == null || !townBlock.hasTown()) {
+            return;
+        }
+        try {
+            cell.setDefendingTown(townBlock.getTown());
+        } catch (NotRegisteredException nre) {
+            nre.printStackTrace();
+        }
     }
 
-    private static void checkPlayerActiveFlagLimit(final String playerName) throws TownyException {
-        if ((getNumActiveFlags(playerName) + 1) > FlagWarConfig.getMaxActiveFlagsPerPerson()) {
-            throw new TownyException(Translate.fromPrefixed("error.flag.max-flags-placed",
+    private static void checkPlayerActiveFlagLimit(final UUID playerUUID, final Locale locale)
+        throws TownyException {
+        if ((ATTACKER_INDEX.getNumActiveFlags(playerUUID) + 1) > FlagWarConfig.getMaxActiveFlagsPerPerson()) {
+            throw new TownyException(Translate.fromPrefixed(locale, "error.flag.max-flags-placed",
                 FlagWarConfig.getMaxActiveFlagsPerPerson()));
         }
     }
 
-    private static void checkCellAlreadyRegistered(final CellUnderAttack attackCell) throws AlreadyRegisteredException {
+    private static void checkCellAlreadyRegistered(final CellUnderAttack attackCell, final Locale locale)
+        throws AlreadyRegisteredException {
         if (attackCell != null) {
-            throw new AlreadyRegisteredException(Translate.fromPrefixed("error.cell-already-under-attack",
+            throw new AlreadyRegisteredException(Translate.fromPrefixed(locale, "error.cell-already-under-attack",
                 attackCell.getNameOfFlagOwner()));
         }
     }
@@ -297,65 +555,98 @@ public class FlagWar extends JavaPlugin {
             flagWarLogger.log(Level.WARNING,
                 () -> Translate.from("startup.load-materials.invalid-beacon-wireframe"));
         }
+
+        loadTimerMaterials();
     }
 
-    static int getNumActiveFlags(final String playerName) {
-        List<CellUnderAttack> activeFlags = PLAYER_ATTACK_HASH_MAP.get(playerName);
-        return activeFlags == null ? 0 : activeFlags.size();
+    /** Load the timer palette from 'flag.timer_blocks', skipping invalid entries. Keeps the default if none are. */
+    private void loadTimerMaterials() {
+        List<Material> palette = new ArrayList<>();
+        for (String name : this.getConfig().getStringList("flag.timer_blocks")) {
+            var timerBlock = Material.matchMaterial(name);
+            if (timerBlock != null && timerBlock.isBlock() && !timerBlock.isAir() && !timerBlock.hasGravity()) {
+                palette.add(timerBlock);
+            } else {
+                flagWarLogger.log(Level.WARNING,
+                    () -> Translate.from("startup.load-materials.invalid-timer-block", name));
+            }
+        }
+        if (palette.isEmpty()) {
+            flagWarLogger.log(Level.WARNING, () -> Translate.from("startup.load-materials.no-timer-blocks"));
+        } else {
+            FlagWarConfig.setTimerBlocks(palette);
+        }
+    }
+
+    static int getNumActiveFlags(final UUID playerUUID) {
+        return ATTACKER_INDEX.getNumActiveFlags(playerUUID);
     }
 
     static List<CellUnderAttack> getCellsUnderAttack() {
-        return new ArrayList<>(ATTACK_HASH_MAP.values());
+        return ATTACK_REGISTRY.values();
     }
 
     static List<CellUnderAttack> getCellsUnderAttack(final Town town) {
-        List<CellUnderAttack> cells = new ArrayList<>();
-        for (CellUnderAttack cua : ATTACK_HASH_MAP.values()) {
-            try {
-                var townUnderAttack =
-                    TownyAPI.getInstance().getTownBlock(cua.getFlagBaseBlock().getLocation()).getTown();
-                if (townUnderAttack == null) {
-                    continue;
-                }
-                if (townUnderAttack == town) {
-                    cells.add(cua);
-                }
-            } catch (NotRegisteredException nre) {
-                nre.printStackTrace();
-            }
-        }
-        return cells;
+        return ATTACK_REGISTRY.getByTown(town.getUUID());
+    }
+
+    static List<CellUnderAttack> getCellsUnderAttack(final Nation nation) {
+        return ATTACK_REGISTRY.getByTowns(townUUIDs(nation));
+    }
+
+    static long getRegistryVersion() {
+        return ATTACK_REGISTRY.version();
     }
 
     static boolean isUnderAttack(final Town town) {
-        for (CellUnderAttack cua : ATTACK_HASH_MAP.values()) {
-            try {
-                var townUnderAttack =
-                    TownyAPI.getInstance().getTownBlock(cua.getFlagBaseBlock().getLocation()).getTown();
-                if (townUnderAttack == null) {
-                    continue;
-                }
-                if (townUnderAttack == town) {
-                    return true;
-                }
-            } catch (NotRegisteredException nre) {
-                nre.printStackTrace();
-            }
+        return ATTACK_REGISTRY.isTownUnderAttack(town.getUUID());
+    }
+
+    static boolean isUnderAttack(final Nation nation) {
+        return ATTACK_REGISTRY.isAnyTownUnderAttack(townUUIDs(nation));
+    }
+
+    /**
+     * Resolve the current towns of a {@link Nation}, rather than the nation recorded when each attack was registered:
+     * towns can join, leave or be kicked from a nation, and nations can merge or be deleted, during an attack.
+     * @param nation the nation.
+     * @return the UUIDs of the nation's towns.
+     */
+    private static List<UUID> townUUIDs(final Nation nation) {
+        var towns = nation.getTowns();
+        List<UUID> uuids = new ArrayList<>(towns.size());
+        for (Town town : towns) {
+            uuids.add(town.getUUID());
         }
-        return false;
+        return uuids;
     }
 
     static boolean isUnderAttack(final Cell cell) {
-        return ATTACK_HASH_MAP.containsKey(cell);
+        return getAttackData(cell) != null;
     }
 
     static CellUnderAttack getAttackData(final Cell cell) {
-        return ATTACK_HASH_MAP.get(cell);
+        return ATTACK_REGISTRY.get(cell.getWorldName(), cell.getKey());
+    }
+
+    static CellUnderAttack getAttackData(final String worldName, final long cellKey) {
+        return ATTACK_REGISTRY.get(worldName, cellKey);
     }
 
     static void removeCellUnderAttack(final CellUnderAttack cell) {
-        removeFlagFromPlayerCount(cell.getNameOfFlagOwner(), cell);
-        ATTACK_HASH_MAP.remove(cell);
+        checkMainThread();
+        ATTACKER_INDEX.remove(cell);
+        if (ATTACK_REGISTRY.remove(cell)) {
+            attackJournal.removed(cell);
+        }
+    }
+
+    /**
+     * Journal the phase change of an active attack, so it resumes at the same phase after a restart.
+     * @param cell the CellUnderAttack whose flag just changed phase.
+     */
+    static void attackPhaseChanged(final CellUnderAttack cell) {
+        attackJournal.phaseChanged(cell);
     }
 
     static void attackWon(final CellUnderAttack cell) {
@@ -381,62 +672,58 @@ public class FlagWar extends JavaPlugin {
 
     /**
      * Cancel all active attacks started by a given player.
-     * @param playerName name of a {@link Player}, used as key when looking up CellUnderAttack to cancel.
+     * @param playerUUID UUID of a {@link Player}, used as key when looking up CellUnderAttack to cancel.
      */
-    public static void removeAttackerFlags(final String playerName) {
-        List<CellUnderAttack> cells = PLAYER_ATTACK_HASH_MAP.get(playerName);
-        if (cells != null) {
-            for (CellUnderAttack cell : cells) {
-                attackCanceled(cell);
-            }
+    public static void removeAttackerFlags(final UUID playerUUID) {
+        // The list is immutable: canceling an attack replaces the indexed list, so iterating here is safe.
+        for (CellUnderAttack cell : ATTACKER_INDEX.getCells(playerUUID)) {
+            attackCanceled(cell);
         }
     }
 
-    static List<CellUnderAttack> getCellsUnderAttackByPlayer(final String playerName) {
-        List<CellUnderAttack> cells = PLAYER_ATTACK_HASH_MAP.get(playerName);
-        if (cells == null) {
-            return new ArrayList<>(0);
-        } else {
-            return new ArrayList<>(cells);
+    /**
+     * Cancel all active attacks started by a given player.
+     * @param playerName name of a {@link Player}, used as key when looking up CellUnderAttack to cancel.
+     * @deprecated since FlagWar 0.1.2, marked for future removal. Use {@link #removeAttackerFlags(UUID)} instead.
+     */
+    @Deprecated(since = "0.1.2", forRemoval = true)
+    public static void removeAttackerFlags(final String playerName) {
+        var playerUUID = ATTACKER_INDEX.getUUID(playerName);
+        if (playerUUID != null) {
+            removeAttackerFlags(playerUUID);
         }
     }
 
-    private static void addFlagToPlayerCount(final String playerName, final CellUnderAttack cell) {
-        List<CellUnderAttack> activeFlags = getCellsUnderAttackByPlayer(playerName);
-        activeFlags.add(cell);
-        PLAYER_ATTACK_HASH_MAP.put(playerName, activeFlags);
+    static List<CellUnderAttack> getCellsUnderAttackByPlayer(final UUID playerUUID) {
+        return ATTACKER_INDEX.getCells(playerUUID);
     }
 
-    private static void removeFlagFromPlayerCount(final String playerName, final Cell cell) {
-        List<CellUnderAttack> activeFlags = PLAYER_ATTACK_HASH_MAP.get(playerName);
-        var cellUnderAttack = (CellUnderAttack) cell;
-        if (activeFlags != null) {
-            if (activeFlags.size() <= 1) {
-                PLAYER_ATTACK_HASH_MAP.remove(playerName);
-            } else {
-                activeFlags.remove(cellUnderAttack);
-                PLAYER_ATTACK_HASH_MAP.put(playerName, activeFlags);
-            }
-        }
+    static List<CellUnderAttack> getCellsUnderAttackByPlayer(final String playerName) {
+        var playerUUID = ATTACKER_INDEX.getUUID(playerName);
+        return playerUUID == null ? List.of() : ATTACKER_INDEX.getCells(playerUUID);
     }
 
     /**
      * Evaluate a {@link Block} to register a successful defense and/or cancel a {@link Cancellable} event.
      * <p>
-     * If a Block is in the {@link FlagWarConfig#isAffectedMaterial(Material)} list and the Block's {@link Cell}
-     * is under attack, evaluate if the Block is the flagTimerBlock, and if so: call
-     * {@link #attackDefended(Player, CellUnderAttack)} amd cancel the event. If it is not the flagTimerBlock, but does
-     * match with {@link CellUnderAttack#isImmutableBlock(Block)}: cancel the event.
+     * Blocks outside the {@link #PROTECTED_BLOCKS} are rejected straight away, with a single chunk lookup. Otherwise,
+     * if a Block is in the {@link FlagWarConfig#isAffectedMaterial(Material)} list and the Block's {@link Cell}
+     * is under attack (probed without constructing the Cell), evaluate if the Block is the flagTimerBlock, and if so:
+     * call {@link #attackDefended(Player, CellUnderAttack)} amd cancel the event. If it is not the flagTimerBlock, but
+     * does match with {@link CellUnderAttack#isImmutableBlock(Block)}: cancel the event.
      *
      * @param player player to be registered as the attack defender.
      * @param block Block to evaluate
      * @param event an event being evaluated for cancellation.
      */
     public static void checkBlock(final Player player, final Block block, final Cancellable event) {
+        if (!PROTECTED_BLOCKS.contains(block)) {
+            return;
+        }
         if (FlagWarConfig.isAffectedMaterial(block.getType())) {
-            var cell = Cell.parse(block.getLocation());
-            if (cell.isUnderAttack()) {
-                CellUnderAttack cellAttackData = cell.getAttackData();
+            CellUnderAttack cellAttackData =
+                ATTACK_REGISTRY.getAtBlock(block.getWorld().getName(), block.getX(), block.getZ());
+            if (cellAttackData != null) {
                 if (cellAttackData.isFlagTimer(block)) {
                     FlagWar.attackDefended(player, cellAttackData);
                     event.setCancelled(true);
@@ -447,6 +734,106 @@ public class FlagWar extends JavaPlugin {
         }
     }
 
+    /**
+     * Check if a {@link Block} is part of a war flag or world-rendered beacon. Allocation-free, and a single lookup
+     * when the Block is not in a chunk holding a flag, so it is safe to call from high-frequency events.
+     *
+     * @param block Block to evaluate.
+     * @return true if the Block is protected.
+     */
+    public static boolean isProtectedBlock(final Block block) {
+        return PROTECTED_BLOCKS.contains(block);
+    }
+
+    /**
+     * Evaluate a batch of {@link Block}s, such as those of an explosion, and remove the protected ones from it.
+     * <p>
+     * The chunks spanned by the batch are probed against the {@link #PROTECTED_BLOCKS} first, so a batch away from
+     * every war is dismissed without looking at its blocks one by one. Otherwise, each protected Block is evaluated as
+     * in {@link #checkBlock(Player, Block, Cancellable)}, looking up the attack once per {@link Cell}, and is removed
+     * from the batch instead of the whole event being cancelled.
+     *
+     * @param player player to be registered as the attack defender, or null.
+     * @param blocks modifiable collection of Blocks, all in the same world. Protected Blocks are removed from it.
+     * @return true if any Block was removed.
+     */
+    public static boolean checkBlocks(final Player player, final Collection<Block> blocks) {
+        return checkBlocks(player, blocks, true);
+    }
+
+    /**
+     * Evaluate a batch of {@link Block}s which cannot be partially applied, such as those moved by a piston, and cancel
+     * the {@link Cancellable} event if any of them is protected. See {@link #checkBlocks(Player, Collection)}.
+     *
+     * @param player player to be registered as the attack defender, or null.
+     * @param blocks collection of Blocks, all in the same world. Not modified.
+     * @param event an event being evaluated for cancellation.
+     */
+    public static void checkBlocks(final Player player, final Collection<Block> blocks, final Cancellable event) {
+        if (checkBlocks(player, blocks, false)) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Shared implementation of both checkBlocks methods.
+     * @param player player to be registered as the attack defender, or null.
+     * @param blocks collection of Blocks, all in the same world.
+     * @param prune true to remove protected Blocks from the collection.
+     * @return true if any Block was protected.
+     */
+    private static boolean checkBlocks(final Player player, final Collection<Block> blocks, final boolean prune) {
+        if (blocks.isEmpty() || PROTECTED_BLOCKS.size() == 0 || !spansProtectedChunk(blocks)) {
+            return false;
+        }
+        var isProtected = false;
+        CellUnderAttack cell = null;
+        var cellKey = 0L;
+        for (Iterator<Block> iterator = blocks.iterator(); iterator.hasNext();) {
+            var block = iterator.next();
+            if (!PROTECTED_BLOCKS.contains(block) || !FlagWarConfig.isAffectedMaterial(block.getType())) {
+                continue;
+            }
+            long key = Cell.keyAt(block.getX(), block.getZ());
+            if (cell == null || key != cellKey) {
+                cell = ATTACK_REGISTRY.get(block.getWorld().getName(), key);
+                cellKey = key;
+            }
+            if (cell == null) {
+                continue;
+            }
+            if (cell.isFlagTimer(block)) {
+                FlagWar.attackDefended(player, cell);
+            } else if (!cell.isImmutableBlock(block)) {
+                continue;
+            }
+            isProtected = true;
+            if (prune) {
+                iterator.remove();
+            }
+        }
+        return isProtected;
+    }
+
+    /**
+     * @param blocks a non-empty collection of Blocks, all in the same world.
+     * @return true if any chunk within the bounding box of the Blocks holds a protected Block.
+     */
+    private static boolean spansProtectedChunk(final Collection<Block> blocks) {
+        var minX = Integer.MAX_VALUE;
+        var minZ = Integer.MAX_VALUE;
+        var maxX = Integer.MIN_VALUE;
+        var maxZ = Integer.MIN_VALUE;
+        for (Block block : blocks) {
+            minX = Math.min(minX, block.getX());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        return PROTECTED_BLOCKS.intersects(blocks.iterator().next().getWorld(), minX >> CHUNK_SHIFT,
+            minZ >> CHUNK_SHIFT, maxX >> CHUNK_SHIFT, maxZ >> CHUNK_SHIFT);
+    }
+
     /**
      * Qualifies an action as a successful attack, charges any fees (if economy enabled), then kick-starts the
      * {@link CellAttackEvent} and sets up associated variables.
@@ -456,12 +843,14 @@ public class FlagWar extends JavaPlugin {
      * @param block The block that would form the flagBaseBlock.
      * @param worldCoord The WorldCoord of the block, or where the attack is taking place.
      * @return True if the attack was successful and after everything
-     * @throws TownyException If the attack would be invalid. Not all returns are thrown exceptions.
+     * @throws TownyException If the attack would be invalid, with a reason in the player's locale. Not all returns are
+     * thrown exceptions.
      */
     public static boolean callAttackCellEvent(final Towny towny, final Player player, final Block block,
                                               final WorldCoord worldCoord) throws TownyException {
 
-        checkFlagHeight(block);
+        var locale = LocaleUtil.getLocale(player);
+        checkFlagHeight(block, locale);
 
         var townyUniverse = TownyUniverse.getInstance();
         var attackingResident = townyUniverse.getResident(player.getUniqueId());
@@ -473,7 +862,7 @@ public class FlagWar extends JavaPlugin {
         TownBlock townBlock;
 
         if (attackingResident == null || !attackingResident.hasNation()) {
-            throw new TownyException(Translate.fromPrefixed("error.player-not-in-nation"));
+            throw new TownyException(Translate.fromPrefixed(locale, "error.player-not-in-nation"));
         }
 
         if (attackingResident.hasTown()) {
@@ -489,7 +878,7 @@ public class FlagWar extends JavaPlugin {
         }
 
         if (attackingTown.getTownBlocks().isEmpty()) {
-            throw new TownyException(Translate.fromPrefixed("error.need-at-least-1-claim"));
+            throw new TownyException(Translate.fromPrefixed(locale, "error.need-at-least-1-claim"));
         }
 
         try {
@@ -497,22 +886,22 @@ public class FlagWar extends JavaPlugin {
             townBlock = worldCoord.getTownBlock();
             landOwnerNation = landOwnerTown.getNation();
         } catch (NotRegisteredException e) {
-            throw new TownyException(Translate.fromPrefixed("error.area-not-in-nation"));
+            throw new TownyException(Translate.fromPrefixed(locale, "error.area-not-in-nation"));
         }
 
-        checkTargetPeaceful(player, townyUniverse, landOwnerNation, attackingNation);
+        checkTargetPeaceful(player, townyUniverse, landOwnerNation, attackingNation, locale);
 
-        checkPlayerLimits(landOwnerTown, attackingTown, landOwnerNation, attackingNation);
+        checkPlayerLimits(landOwnerTown, attackingTown, landOwnerNation, attackingNation, locale);
 
         // Check that attack takes place on the edge of a town
         if (FlagWarConfig.isAttackingBordersOnly()
             && !AreaSelectionUtil.isOnEdgeOfOwnership(landOwnerTown, worldCoord)) {
-            throw new TownyException(Translate.fromPrefixed("error.border-attack-only"));
+            throw new TownyException(Translate.fromPrefixed(locale, "error.border-attack-only"));
         }
 
         double costToPlaceWarFlag = FlagWarConfig.getCostToPlaceWarFlag();
         if (TownyEconomyHandler.isActive()) {
-            calculateFeesAndFines(attackingResident, townBlock, costToPlaceWarFlag);
+            calculateFeesAndFines(attackingResident, townBlock, costToPlaceWarFlag, locale);
         }
 
         if (!kickstartCellAttackEvent(towny, player, block)) {
@@ -525,15 +914,19 @@ public class FlagWar extends JavaPlugin {
         setAttackerAsEnemy(landOwnerNation, attackingNation);
         addWarzoneAndUpdateCache(towny, worldCoord, townyUniverse);
 
-        TownyMessaging.sendGlobalMessage(Translate.fromPrefixed("broadcast.area.under_attack",
-            landOwnerTown.getFormattedName(), worldCoord.toString(), attackingResident.getFormattedName()));
+        var recipients = getBroadcastRecipients(FlagWarConfig.getUnderAttackScope(), block.getLocation(),
+            landOwnerTown, attackingTown);
+        BROADCASTS.post(recipients, "broadcast.area.under_attack", new Object[]{landOwnerTown.getFormattedName(),
+            worldCoord.toString(), attackingResident.getFormattedName()}, "broadcast.area.under_attack.summary",
+            landOwnerTown.getFormattedName(), attackingResident.getFormattedName());
+        alertDefenders(landOwnerTown, worldCoord, attackingResident);
         return true;
     }
 
-    private static void checkFlagHeight(final Block block) throws TownyException {
+    private static void checkFlagHeight(final Block block, final Locale locale) throws TownyException {
         int topY = block.getWorld().getHighestBlockYAt(block.getX(), block.getZ()) - 1;
         if (block.getY() < topY) {
-            throw new TownyException(Translate.fromPrefixed("error.flag.need-above-ground"));
+            throw new TownyException(Translate.fromPrefixed(locale, "error.flag.need-above-ground"));
         }
     }
 
@@ -548,11 +941,12 @@ public class FlagWar extends JavaPlugin {
     private static void checkPlayerLimits(final Town defendingTown,
                                           final Town attackingTown,
                                           final Nation defendingNation,
-                                          final Nation attackingNation) throws TownyException {
-        checkIfTownHasMinOnlineForWar(defendingTown);
-        checkIfNationHasMinOnlineForWar(defendingNation);
-        checkIfTownHasMinOnlineForWar(attackingTown);
-        checkIfNationHasMinOnlineForWar(attackingNation);
+                                          final Nation attackingNation,
+                                          final Locale locale) throws TownyException {
+        checkIfTownHasMinOnlineForWar(defendingTown, locale);
+        checkIfNationHasMinOnlineForWar(defendingNation, locale);
+        checkIfTownHasMinOnlineForWar(attackingTown, locale);
+        checkIfNationHasMinOnlineForWar(attackingNation, locale);
     }
 
     private static void addWarzoneAndUpdateCache(final Towny towny,
@@ -562,9 +956,17 @@ public class FlagWar extends JavaPlugin {
         towny.updateCache(worldCoord);
     }
 
+    private static void removeWarzoneAndUpdateCache(final Towny towny,
+                                                    final WorldCoord worldCoord,
+                                                    final TownyUniverse townyUniverse) {
+        townyUniverse.removeWarZone(worldCoord);
+        towny.updateCache(worldCoord);
+    }
+
     private static void payForWarFlag(final Resident attackRes, final double cost) throws TownyException {
         attackRes.getAccount().withdraw(cost, "War - WarFlag Cost");
-        TownyMessaging.sendResidentMessage(attackRes, Translate.fromPrefixed("warflag-purchased",
+        var locale = LocaleUtil.getLocale(attackRes.getPlayer());
+        TownyMessaging.sendResidentMessage(attackRes, Translate.fromPrefixed(locale, "warflag-purchased",
                 TownyEconomyHandler.getFormattedBalance(cost)));
     }
 
@@ -592,18 +994,19 @@ public class FlagWar extends JavaPlugin {
 
     private static void calculateFeesAndFines(final Resident attackRes,
                                               final TownBlock townBlock,
-                                              final double costToPlaceWarFlag) throws TownyException {
+                                              final double costToPlaceWarFlag,
+                                              final Locale locale) throws TownyException {
             double requiredAmount = costToPlaceWarFlag;
             double balance = attackRes.getAccount().getHoldingBalance();
 
             // Check that the user can pay for the war flag.
             if (balance < costToPlaceWarFlag) {
-                throw new TownyException(Translate.fromPrefixed("error.flag.insufficient-funds",
+                throw new TownyException(Translate.fromPrefixed(locale, "error.flag.insufficient-funds",
                     TownyEconomyHandler.getFormattedBalance(costToPlaceWarFlag)));
             }
 
             // Check that the user can pay the fines from losing/winning all future war flags.
-            int activeFlagCount = getNumActiveFlags(attackRes.getName());
+            int activeFlagCount = getNumActiveFlags(attackRes.getUUID());
             double defendedAttackCost = FlagWarConfig.getDefendedAttackReward() * (activeFlagCount + 1);
             double attackWinCost;
 
@@ -622,17 +1025,17 @@ public class FlagWar extends JavaPlugin {
                     // Worst case scenario that all attacks are defended.
                     requiredAmount += defendedAttackCost;
                     cost = defendedAttackCost;
-                    reason = Translate.from("name_defended_attack");
+                    reason = Translate.from(locale, "name_defended_attack");
                 } else {
                     // Worst case scenario that all attacks go through, but is forced to pay a rebuilding fine.
                     requiredAmount += attackWinCost;
                     cost = attackWinCost;
-                    reason = Translate.from("name_rebuilding");
+                    reason = Translate.from(locale, "name_rebuilding");
                 }
 
                 // Check if player can pay in worst case scenario.
                 if (balance < requiredAmount) {
-                    throw new TownyException(Translate.fromPrefixed("error.insufficient-future-funds",
+                    throw new TownyException(Translate.fromPrefixed(locale, "error.insufficient-future-funds",
                         TownyEconomyHandler.getFormattedBalance(cost), activeFlagCount + 1, reason));
                 }
             }
@@ -652,14 +1055,15 @@ public class FlagWar extends JavaPlugin {
     private static void checkTargetPeaceful(final Player player,
                                             final TownyUniverse townyUniverse,
                                             final Nation landOwnerNation,
-                                            final Nation attackingNation) throws TownyException {
+                                            final Nation attackingNation,
+                                            final Locale locale) throws TownyException {
 
         if (landOwnerNation.isNeutral()) {
-            throw new TownyException(Translate.fromPrefixed("error.target-is-peaceful", landOwnerNation
+            throw new TownyException(Translate.fromPrefixed(locale, "error.target-is-peaceful", landOwnerNation
                 .getFormattedName()));
         }
         if (!townyUniverse.getPermissionSource().isTownyAdmin(player) && attackingNation.isNeutral()) {
-            throw new TownyException(Translate.fromPrefixed("error.target-is-peaceful", attackingNation
+            throw new TownyException(Translate.fromPrefixed(locale, "error.target-is-peaceful", attackingNation
                 .getFormattedName()));
         }
     }
@@ -670,10 +1074,20 @@ public class FlagWar extends JavaPlugin {
      * @throws TownyException if there are not enough online players.
      */
     public static void checkIfTownHasMinOnlineForWar(final Town town) throws TownyException {
+        checkIfTownHasMinOnlineForWar(town, LocaleUtil.getLocale());
+    }
+
+    /**
+     * Check if a {@link Town} meets the minimum requirement of {@link Player}s online to participate in a flag war.
+     * @param town Town to check for eligibility.
+     * @param locale the {@link Locale} to render the exception's message in.
+     * @throws TownyException if there are not enough online players.
+     */
+    public static void checkIfTownHasMinOnlineForWar(final Town town, final Locale locale) throws TownyException {
         var requiredOnline = FlagWarConfig.getMinPlayersOnlineInTownForWar();
         int onlinePlayerCount = TownyAPI.getInstance().getOnlinePlayers(town).size();
         if (onlinePlayerCount < requiredOnline) {
-            throw new TownyException(Translate.fromPrefixed("error.not-enough-online-players",
+            throw new TownyException(Translate.fromPrefixed(locale, "error.not-enough-online-players",
                 requiredOnline, town.getFormattedName()));
         }
     }
@@ -684,10 +1098,21 @@ public class FlagWar extends JavaPlugin {
      * @throws TownyException if there are not enough online players.
      */
     public static void checkIfNationHasMinOnlineForWar(final Nation nation) throws TownyException {
+        checkIfNationHasMinOnlineForWar(nation, LocaleUtil.getLocale());
+    }
+
+    /**
+     * Check if a {@link Nation} meets the minimum requirement of {@link Player}s online to participate in a flag war.
+     * @param nation Nation to check for eligibility.
+     * @param locale the {@link Locale} to render the exception's message in.
+     * @throws TownyException if there are not enough online players.
+     */
+    public static void checkIfNationHasMinOnlineForWar(final Nation nation, final Locale locale)
+        throws TownyException {
         int requiredOnline = FlagWarConfig.getMinPlayersOnlineInNationForWar();
         int onlinePlayerCount = TownyAPI.getInstance().getOnlinePlayers(nation).size();
         if (onlinePlayerCount < requiredOnline) {
-            throw new TownyException(Translate.fromPrefixed("error.not-enough-online-players",
+            throw new TownyException(Translate.fromPrefixed(locale, "error.not-enough-online-players",
                 requiredOnline, nation.getFormattedName()));
         }
     }
@@ -701,22 +1126,190 @@ public class FlagWar extends JavaPlugin {
         return new WorldCoord(cell.getWorldName(), cell.getX(), cell.getZ());
     }
 
-    static long lastFlagged(final Town town) {
-        if (TOWN_LAST_FLAGGED_HASH_MAP.containsKey(town)) {
-            return TOWN_LAST_FLAGGED_HASH_MAP.get(town);
+    /**
+     * Schedule a task on FlagWar's shared flag timer, to run at a fixed interval until cancelled. Main thread only.
+     * @param task the task to run.
+     * @param interval the number of ticks before the first run, and between runs.
+     * @return a handle to cancel the task with.
+     */
+    public static TimingWheel.Timeout scheduleFlagTimer(final Runnable task, final long interval) {
+        checkMainThread();
+        return flagTimers.schedule(task, interval, interval);
+    }
+
+    /**
+     * Get the queue through which war flags and beacons are drawn. Changes are applied over the following ticks,
+     * within the budget set in the 'rendering' configuration section. Main thread only.
+     * @return the shared {@link BlockWriteQueue}.
+     */
+    public static BlockWriteQueue getBlockWriteQueue() {
+        return BLOCK_WRITES;
+    }
+
+    /** @return the shared {@link ClientBeaconRenderer}, used when 'beacon.render' is set to 'client'. */
+    public static ClientBeaconRenderer getClientBeaconRenderer() {
+        return CLIENT_BEACONS;
+    }
+
+    /** @return the shared {@link ProtectedBlockIndex}, holding the position of every flag and beacon block. */
+    public static ProtectedBlockIndex getProtectedBlocks() {
+        return PROTECTED_BLOCKS;
+    }
+
+    /** @return the shared {@link ParticleBeaconRenderer}, used when 'beacon.render' is set to 'particle'. */
+    public static ParticleBeaconRenderer getParticleBeaconRenderer() {
+        return PARTICLE_BEACONS;
+    }
+
+    /** @return the shared {@link PlayerGrid}, holding every online player by world and chunk. */
+    public static PlayerGrid getPlayerGrid() {
+        return PLAYER_GRID;
+    }
+
+    /**
+     * Resolve who receives a war announcement about an area, from the {@link #PLAYER_GRID} or the towns involved,
+     * rather than by scanning every online player.
+     * @param scope the configured {@link BroadcastScope} of the announcement.
+     * @param location a location in the announced area.
+     * @param towns the towns involved, such as the defending and attacking towns. Null entries are skipped.
+     * @return the recipients, or null to send the announcement to every online player.
+     */
+    public static Set<Player> getBroadcastRecipients(final BroadcastScope scope, final Location location,
+                                                     final Town... towns) {
+        var world = location.getWorld();
+        if (scope == BroadcastScope.WORLD && world != null) {
+            return new HashSet<>(world.getPlayers());
         }
-        return 0;
+        if (scope == BroadcastScope.RADIUS && world != null) {
+            Set<Player> nearby = new HashSet<>();
+            PLAYER_GRID.collectNear(world, location.getBlockX() >> CHUNK_SHIFT, location.getBlockZ() >> CHUNK_SHIFT,
+                FlagWarConfig.getBroadcastRadius(), nearby);
+            return nearby;
+        }
+        if (scope == BroadcastScope.INVOLVED) {
+            Set<Player> members = new HashSet<>();
+            for (Town town : towns) {
+                collectOnlineMembers(town, members);
+            }
+            return members;
+        }
+        return null;
     }
 
     /**
-     * Update a {@link Town}'s entry in the {@link #TOWN_LAST_FLAGGED_HASH_MAP}.
-     * @param town the Town to update the last-flagged entry for.
+     * Collect the online members of a {@link Town}'s {@link Nation}, or of the town itself if it has no nation.
+     * @param town the town. May be null.
+     * @param target the set the online members are added to.
      */
-    public static void townFlagged(final Town town) {
-        if (TOWN_LAST_FLAGGED_HASH_MAP.containsKey(town)) {
-            TOWN_LAST_FLAGGED_HASH_MAP.replace(town, System.currentTimeMillis());
+    private static void collectOnlineMembers(final Town town, final Set<Player> target) {
+        if (town == null) {
+            return;
+        }
+        if (town.hasNation()) {
+            try {
+                for (Town nationTown : town.getNation().getTowns()) {
+                    ONLINE_MEMBERS.collect(nationTown.getUUID(), target);
+                }
+                return;
+            } catch (NotRegisteredException e) {
+                Messaging.debug("Town %s lost its nation.", new Object[]{town.getName()});
+            }
+        }
+        ONLINE_MEMBERS.collect(town.getUUID(), target);
+    }
+
+    /**
+     * Alert the online members of a defending {@link Town} (and of its {@link Nation}, if 'alerts.include_nation' is
+     * true) that an area of the town was flagged, in the configured {@link FlagWarConfig#getAlertStyle()}. Members are
+     * found through the {@link #ONLINE_MEMBERS} index, and those who opted out (see {@link #isAlerting(Resident)}) are
+     * skipped.
+     * @param town the defending town.
+     * @param area the flagged area.
+     * @param attacker the attacking resident.
+     */
+    private static void alertDefenders(final Town town, final WorldCoord area, final Resident attacker) {
+        if (!FlagWarConfig.isAlertingDefenders()) {
+            return;
+        }
+        Set<Player> defenders = new HashSet<>();
+        if (FlagWarConfig.isAlertingNation()) {
+            collectOnlineMembers(town, defenders);
         } else {
-            TOWN_LAST_FLAGGED_HASH_MAP.put(town, System.currentTimeMillis());
+            ONLINE_MEMBERS.collect(town.getUUID(), defenders);
         }
+        var universe = TownyUniverse.getInstance();
+        defenders.removeIf(player -> {
+            var resident = universe.getResident(player.getUniqueId());
+            return resident == null || !isAlerting(resident);
+        });
+        Messaging.alert(defenders, FlagWarConfig.getAlertStyle(), "alert.town-under-attack",
+            town.getFormattedName(), area.toString(), attacker.getFormattedName());
+    }
+
+    /**
+     * @param resident a {@link Resident}.
+     * @return false if the Resident opted out of defence alerts, through their {@link #ALERTS_META_KEY} metadata.
+     */
+    public static boolean isAlerting(final Resident resident) {
+        if (!resident.hasMeta(ALERTS_META_KEY)) {
+            return true;
+        }
+        var field = resident.getMetadata(ALERTS_META_KEY);
+        return !(field instanceof BooleanDataField) || Boolean.TRUE.equals(((BooleanDataField) field).getValue());
+    }
+
+    /**
+     * Opt a {@link Resident} in or out of defence alerts. Opting out is stored in the Resident's Towny metadata, under
+     * {@link #ALERTS_META_KEY}, so it persists along with the Resident.
+     * @param resident the Resident.
+     * @param alerting true to receive alerts (the default), false to opt out.
+     */
+    public static void setAlerting(final Resident resident, final boolean alerting) {
+        if (resident.hasMeta(ALERTS_META_KEY)) {
+            resident.removeMetaData(resident.getMetadata(ALERTS_META_KEY));
+        }
+        if (!alerting) {
+            resident.addMetaData(new BooleanDataField(ALERTS_META_KEY, false));
+        }
+        resident.save();
+    }
+
+    /** @return the shared {@link OnlineMemberIndex}, holding the online members of every town. */
+    public static OnlineMemberIndex getOnlineMembers() {
+        return ONLINE_MEMBERS;
+    }
+
+    /**
+     * @param player an online {@link Player}.
+     * @return the UUID of the player's Town, or null if they are not a resident of one.
+     */
+    public static UUID getTownUUID(final Player player) {
+        var resident = TownyUniverse.getInstance().getResident(player.getUniqueId());
+        if (resident == null || !resident.hasTown()) {
+            return null;
+        }
+        try {
+            return resident.getTown().getUUID();
+        } catch (NotRegisteredException e) {
+            return null;
+        }
+    }
+
+    /** @return the shared {@link BroadcastAggregator}, which war announcements are posted to. */
+    public static BroadcastAggregator getBroadcastAggregator() {
+        return BROADCASTS;
+    }
+
+    static long lastFlagged(final Town town) {
+        return TOWN_COOLDOWNS.getLastFlagged(town.getUUID());
+    }
+
+    /**
+     * Update a {@link Town}'s entry in the {@link #TOWN_COOLDOWNS}. Only the time is recorded: the cooldown length is
+     * read from the current configuration whenever it is checked, so a reload applies to existing cooldowns too.
+     * @param town the Town to update the last-flagged entry for.
+     */
+    public static void townFlagged(final Town town) {
+        TOWN_COOLDOWNS.flagged(town.getUUID(), System.currentTimeMillis());
     }
 }
@@ -17,15 +17,25 @@
 
 package io.github.townyadvanced.flagwar;
 
+import com.palmergames.bukkit.towny.object.Nation;
 import com.palmergames.bukkit.towny.object.Town;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
 import io.github.townyadvanced.flagwar.objects.Cell;
 import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 /**
  *  FlagWar Public API.
+ *  <p>
+ *  Query methods are safe to call from any thread, and never block the server's main thread. Methods causing changes
+ *  to active attacks must be called from the main thread.
+ *  <p>
+ *  Lists returned by this API are immutable snapshots, shared between callers, and are only rebuilt when the set of
+ *  active attacks changes. Use {@link #getVersion()} to skip work when nothing changed since a previous read.
  */
 public final class FlagWarAPI {
 
@@ -51,9 +61,18 @@ public final class FlagWarAPI {
         return FlagWar.isUnderAttack(town);
     }
 
+    /**
+     * Check if any Town of a Nation has active flag war cells.
+     * @param nation Target Nation to check.
+     * @return True if there is a {@link CellUnderAttack} defended by a Town of the given Nation.
+     */
+    public static boolean isUnderAttack(final Nation nation) {
+        return FlagWar.isUnderAttack(nation);
+    }
+
     /**
      * Get all cells under attack.
-     * @return A {@link CellUnderAttack} list containing all Cells under attack.
+     * @return An immutable {@link CellUnderAttack} list containing all Cells under attack.
      */
     public static List<CellUnderAttack> getCellsUnderAttack() {
         return FlagWar.getCellsUnderAttack();
@@ -62,37 +81,73 @@ public final class FlagWarAPI {
     /**
      * Returns a list of cells under attack within a given Town.
      * @param town Target Town to check.
-     * @return All {@link CellUnderAttack} objects related to the town.
+     * @return An immutable list of all {@link CellUnderAttack} objects related to the town.
      */
     public static List<CellUnderAttack> getCellsUnderAttack(final Town town) {
         return FlagWar.getCellsUnderAttack(town);
     }
 
+    /**
+     * Returns a list of cells under attack within the Towns of a given Nation.
+     * @param nation Target Nation to check.
+     * @return An immutable list of all {@link CellUnderAttack} objects related to the nation.
+     */
+    public static List<CellUnderAttack> getCellsUnderAttack(final Nation nation) {
+        return FlagWar.getCellsUnderAttack(nation);
+    }
+
     /**
      * Retrieves a {@link CellUnderAttack} list associated with a {@link Player}.
      * @param player The Player object to check against.
-     * @return a CellUnderAttack list tied to a Player.
+     * @return an immutable CellUnderAttack list tied to a Player.
      */
     public static List<CellUnderAttack> getCellsUnderAttack(final Player player) {
-        return FlagWar.getCellsUnderAttackByPlayer(player.getName());
+        return FlagWar.getCellsUnderAttackByPlayer(player.getUniqueId());
+    }
+
+    /**
+     * Retrieves a {@link CellUnderAttack} list associated with a player's UUID.
+     * @param playerUUID The player's UUID to check against.
+     * @return an immutable CellUnderAttack list tied to a given player UUID.
+     */
+    public static List<CellUnderAttack> getCellsUnderAttack(final UUID playerUUID) {
+        return FlagWar.getCellsUnderAttackByPlayer(playerUUID);
     }
 
     /**
      * Retrieves a {@link CellUnderAttack} list associated with a player's name.
      * @param playerName The player's name to check against.
-     * @return a CellUnderAttack list tied to a given player name.
+     * @return an immutable CellUnderAttack list tied to a given player name.
      */
     public static List<CellUnderAttack> getCellsUnderAttack(final String playerName) {
         return FlagWar.getCellsUnderAttackByPlayer(playerName);
     }
 
+    /**
+     * Gets the version of the active attack registry. The version changes every time an attack is registered, won,
+     * defended, or canceled; but not when a flag changes phase.
+     * @return the current registry version.
+     */
+    public static long getVersion() {
+        return FlagWar.getRegistryVersion();
+    }
+
     /**
      * Retrieves the number of active flags a Player has in play.
      * @param player A {@link Player}
      * @return The number of flags a Player has in play.
      */
     public static int getNumActiveFlags(final Player player) {
-        return FlagWar.getNumActiveFlags(player.getName());
+        return FlagWar.getNumActiveFlags(player.getUniqueId());
+    }
+
+    /**
+     * Retrieves the number of active flags a player has in play.
+     * @param playerUUID The UUID of the player.
+     * @return The number of flags the player has in play.
+     */
+    public static int getNumActiveFlags(final UUID playerUUID) {
+        return FlagWar.getNumActiveFlags(playerUUID);
     }
 
     /**
@@ -104,10 +159,21 @@ public final class FlagWarAPI {
         return FlagWar.getAttackData(cell);
     }
 
+    /**
+     * Gets the {@link CellUnderAttack} containing a given {@link Location}, without constructing a {@link Cell}.
+     * @param location The location to look up.
+     * @return The CellUnderAttack, or null if the location's cell is not under attack.
+     */
+    public static CellUnderAttack getAttackData(final Location location) {
+        var world = Objects.requireNonNull(location.getWorld());
+        return FlagWar.getAttackData(world.getName(), Cell.keyAt(location.getBlockX(), location.getBlockZ()));
+    }
+
     /**
      * Get a timestamp for when a {@link Town} was last flagged.
      * @param town The town to check.
-     * @return the previous timestamp for when the town was flagged, in milliseconds.
+     * @return the previous timestamp for when the town was flagged, in milliseconds; or 0 if the town was never
+     * flagged, or its post-flag cooldown has since passed.
      */
     public static long getFlaggedTimestamp(final Town town) {
         return FlagWar.lastFlagged(town);
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
+import org.bukkit.Color;
+import org.bukkit.DyeColor;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders war beacons as particles, in the colour of each flag's current timer phase. Nothing is placed in the world.
+ * <p>
+ * Each beacon is emitted once per configured interval, only to the players within the configured radius of its flag.
+ * A global budget caps the number of particle packets sent per tick: beacons which do not fit wait for the next tick,
+ * in round-robin order, and a beacon too large for the budget on its own is thinned out, and sent to a rotating
+ * subset of its viewers if even a single block would not fit. With many flags up at once, beacons get sparser or
+ * flicker more slowly, but the cost per tick stays flat.
+ * <p>
+ * Main thread only.
+ */
+public final class ParticleBeaconRenderer {
+
+    /** Size of each dust particle. */
+    private static final float PARTICLE_SIZE = 1.5f;
+    /** Offset from a block's corner to its centre. */
+    private static final double BLOCK_CENTRE = 0.5;
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+
+    /** Beacons being rendered, in round-robin order. */
+    private final List<Beacon> beacons = new ArrayList<>();
+    /** Cached dust options, by timer material. */
+    private final Map<Material, Particle.DustOptions> dust = new EnumMap<>(Material.class);
+    /** Players near the beacon being considered, reused across beacons and ticks. */
+    private final List<Player> nearby = new ArrayList<>();
+    /** Players within range of the beacon being considered, reused across beacons and ticks. */
+    private final List<Player> viewers = new ArrayList<>();
+    /** Offset of the first viewer to emit to, when a beacon has more viewers than the remaining budget. */
+    private int viewerRotation;
+    /** Index of the next beacon to consider, in {@link #beacons}. */
+    private int cursor;
+    /** Number of ticks elapsed since the renderer was created. */
+    private long now;
+
+    /** A rendered beacon, and when it is next due to be emitted. */
+    private static final class Beacon {
+        /** The attack owning the beacon. */
+        private final CellUnderAttack cell;
+        /** Tick at which the beacon is next due. */
+        private long due;
+
+        private Beacon(final CellUnderAttack attack, final long dueTick) {
+            this.cell = attack;
+            this.due = dueTick;
+        }
+    }
+
+    /**
+     * Start rendering a beacon.
+     * @param cell the attack whose beacon to render.
+     */
+    public void show(final CellUnderAttack cell) {
+        beacons.add(new Beacon(cell, now));
+    }
+
+    /**
+     * Stop rendering a beacon. Its particles fade on their own.
+     * @param cell the attack whose beacon to remove.
+     */
+    public void hide(final CellUnderAttack cell) {
+        for (var i = 0; i < beacons.size(); i++) {
+            if (beacons.get(i).cell == cell) {
+                beacons.remove(i);
+                if (cursor > i) {
+                    cursor--;
+                }
+                return;
+            }
+        }
+    }
+
+    /** Emit the beacons which are due, until the packet budget for this tick runs out. */
+    public void tick() {
+        now++;
+        if (beacons.isEmpty()) {
+            return;
+        }
+        int budget = FlagWarConfig.getBeaconParticleBudget();
+        long interval = FlagWarConfig.getBeaconParticleInterval();
+        int radius = FlagWarConfig.getBeaconParticleRadius();
+        var emitted = 0;
+        for (var visited = 0; visited < beacons.size(); visited++) {
+            if (cursor >= beacons.size()) {
+                cursor = 0;
+            }
+            var beacon = beacons.get(cursor);
+            if (beacon.due <= now) {
+                collectViewers(beacon.cell, radius);
+                int points = beacon.cell.getBeaconWireframeBlocks().size() + beacon.cell.getBeaconFlagBlocks().size();
+                int cost = points * viewers.size();
+                if (cost > budget - emitted && emitted > 0) {
+                    // Out of budget: resume from this beacon next tick.
+                    return;
+                }
+                emitted += emit(beacon.cell, viewers, cost, budget - emitted);
+                beacon.due = now + interval;
+            }
+            cursor++;
+        }
+    }
+
+    /**
+     * Fill {@link #viewers} with the players within range of a beacon, looking them up in the chunks around its flag
+     * through the {@link FlagWar#getPlayerGrid()}, rather than scanning the whole world.
+     * @param cell the attack owning the beacon.
+     * @param radius the maximum distance to the flag, in blocks.
+     */
+    private void collectViewers(final CellUnderAttack cell, final int radius) {
+        var flag = cell.getFlagBaseBlock();
+        var centre = flag.getLocation();
+        double maxDistanceSquared = (double) radius * radius;
+        nearby.clear();
+        viewers.clear();
+        FlagWar.getPlayerGrid().collectNear(flag.getWorld(), flag.getX() >> CHUNK_SHIFT, flag.getZ() >> CHUNK_SHIFT,
+            (radius >> CHUNK_SHIFT) + 1, nearby);
+        for (Player player : nearby) {
+            var location = player.getLocation();
+            if (location.getWorld() == centre.getWorld() && location.distanceSquared(centre) <= maxDistanceSquared) {
+                viewers.add(player);
+            }
+        }
+    }
+
+    /**
+     * Emit a beacon to its viewers, thinning it out if it does not fit the remaining budget. If there are more viewers
+     * than packets left, only a subset of them is emitted to, rotating across emissions so every viewer gets a turn.
+     * @param cell the attack owning the beacon.
+     * @param beaconViewers the players to emit to.
+     * @param cost the number of packets a full emission would take.
+     * @param remaining the number of packets left in this tick's budget.
+     * @return the number of packets sent, never more than remaining.
+     */
+    private int emit(final CellUnderAttack cell, final List<Player> beaconViewers, final int cost,
+                     final int remaining) {
+        int phase = cell.getFlagPhaseID();
+        if (cost == 0 || remaining <= 0 || phase >= FlagWarConfig.getTimerBlockCount()) {
+            return 0;
+        }
+        var targets = beaconViewers;
+        var points = cost / beaconViewers.size();
+        if (beaconViewers.size() > remaining) {
+            Collections.rotate(beaconViewers, -(viewerRotation % beaconViewers.size()));
+            viewerRotation = (viewerRotation + remaining) % beaconViewers.size();
+            targets = beaconViewers.subList(0, remaining);
+        }
+        var options = dust(FlagWarConfig.getTimerBlock(phase));
+        long targetCost = (long) points * targets.size();
+        var stride = (int) ((targetCost + remaining - 1) / remaining);
+        var sent = emitAll(cell.getBeaconWireframeBlocks(), targets, options, stride, 0, remaining);
+        return emitAll(cell.getBeaconFlagBlocks(), targets, options, stride, sent, remaining);
+    }
+
+    /**
+     * Emit every stride-th block of a list to the given players, stopping before the limit would be exceeded.
+     * @param blocks the blocks to emit.
+     * @param targets the players to emit to.
+     * @param options the dust options to emit with.
+     * @param stride the distance between emitted blocks.
+     * @param sentSoFar the number of packets already sent for this beacon.
+     * @param limit the maximum number of packets to send for this beacon.
+     * @return the number of packets sent for this beacon, including sentSoFar.
+     */
+    private static int emitAll(final List<Block> blocks, final List<Player> targets,
+                               final Particle.DustOptions options, final int stride, final int sentSoFar,
+                               final int limit) {
+        var sent = sentSoFar;
+        for (var i = 0; i < blocks.size() && sent + targets.size() <= limit; i += stride) {
+            var block = blocks.get(i);
+            double x = block.getX() + BLOCK_CENTRE;
+            double y = block.getY() + BLOCK_CENTRE;
+            double z = block.getZ() + BLOCK_CENTRE;
+            for (Player player : targets) {
+                player.spawnParticle(Particle.REDSTONE, x, y, z, 1, options);
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * @param material a timer material.
+     * @return dust options in the material's dye colour, or white if it is not a dyed block.
+     */
+    private Particle.DustOptions dust(final Material material) {
+        return dust.computeIfAbsent(material, m -> new Particle.DustOptions(colourOf(m), PARTICLE_SIZE));
+    }
+
+    /**
+     * @param material a material, such as LIGHT_BLUE_WOOL or RED_STAINED_GLASS.
+     * @return the colour of the longest dye name prefixing the material's name, or white if there is none.
+     */
+    private static Color colourOf(final Material material) {
+        var name = material.name();
+        DyeColor match = null;
+        for (DyeColor dye : DyeColor.values()) {
+            if (name.startsWith(dye.name() + "_") && (match == null || dye.name().length() > match.name().length())) {
+                match = dye;
+            }
+        }
+        return match != null ? match.getColor() : Color.WHITE;
+    }
+}
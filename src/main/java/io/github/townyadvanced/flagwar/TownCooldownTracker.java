@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks when towns were last flagged, keyed by town UUID, and forgets them once their post-flag cooldown has passed.
+ * <p>
+ * Only the flag timestamps are kept: the cooldown length is passed in whenever expiry is checked, so a reloaded
+ * 'rules.time_to_wait_after_flagged' applies to existing cooldowns too. Every town shares the same cooldown length, so
+ * a priority queue ordered by flag time is also ordered by expiry, and purging only ever looks at entries which are
+ * due. Entries superseded by a later flagging of the same town are skipped lazily.
+ * <p>
+ * Mutation and purging happen on the main thread. Lookups are safe from any thread.
+ */
+final class TownCooldownTracker {
+
+    /** Identifies a cooldown file. */
+    private static final int FILE_MAGIC = 0x46574344;
+    /** Version of the cooldown file format. */
+    private static final byte FILE_VERSION = 2;
+    /** Version of the cooldown file format which also stored each expiry time. */
+    private static final byte EXPIRY_VERSION = 1;
+
+    /** Last-flagged timestamps (epoch milliseconds), keyed by town UUID. */
+    private final Map<UUID, Long> lastFlagged = new ConcurrentHashMap<>();
+    /** Pending flaggings, earliest first. Main thread only. */
+    private final PriorityQueue<Flagging> flaggings = new PriorityQueue<>(Comparator.comparingLong(f -> f.flaggedAt));
+
+    /** A flagging of a town, whose cooldown is pending expiry. */
+    private static final class Flagging {
+        /** UUID of the town. */
+        private final UUID town;
+        /** Last-flagged timestamp, in epoch milliseconds. */
+        private final long flaggedAt;
+
+        private Flagging(final UUID townUUID, final long flaggedTime) {
+            this.town = townUUID;
+            this.flaggedAt = flaggedTime;
+        }
+    }
+
+    /**
+     * Record a town as flagged.
+     * @param townUUID the UUID of the town.
+     * @param timestamp when the town was flagged, in epoch milliseconds.
+     */
+    void flagged(final UUID townUUID, final long timestamp) {
+        lastFlagged.put(townUUID, timestamp);
+        flaggings.add(new Flagging(townUUID, timestamp));
+    }
+
+    /**
+     * @param townUUID the UUID of the town.
+     * @return when the town was last flagged, in epoch milliseconds; or 0 if its cooldown has already passed.
+     */
+    long getLastFlagged(final UUID townUUID) {
+        return lastFlagged.getOrDefault(townUUID, 0L);
+    }
+
+    /**
+     * Forget every town whose cooldown has passed.
+     * @param now the current time, in epoch milliseconds.
+     * @param cooldown the current cooldown period, in milliseconds.
+     */
+    void purgeExpired(final long now, final long cooldown) {
+        Flagging head;
+        while ((head = flaggings.peek()) != null && head.flaggedAt + cooldown <= now) {
+            flaggings.poll();
+            // Only drop the timestamp if the town was not flagged again since this expiry was scheduled.
+            lastFlagged.remove(head.town, head.flaggedAt);
+        }
+    }
+
+    /**
+     * Write every cooldown still active to disk. The file is written aside, then moved into place.
+     * @param file the file to write to.
+     * @param now the current time, in epoch milliseconds.
+     * @param cooldown the current cooldown period, in milliseconds.
+     * @throws IOException if the file cannot be written.
+     */
+    void save(final File file, final long now, final long cooldown) throws IOException {
+        purgeExpired(now, cooldown);
+        List<Flagging> live = new ArrayList<>(lastFlagged.size());
+        for (Flagging flagging : flaggings) {
+            if (lastFlagged.getOrDefault(flagging.town, 0L) == flagging.flaggedAt) {
+                live.add(flagging);
+            }
+        }
+        var temp = new File(file.getPath() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeByte(FILE_VERSION);
+            out.writeInt(live.size());
+            for (Flagging flagging : live) {
+                out.writeLong(flagging.town.getMostSignificantBits());
+                out.writeLong(flagging.town.getLeastSignificantBits());
+                out.writeLong(flagging.flaggedAt);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read cooldowns back from disk, skipping any which expired in the meantime. Missing files are ignored. Files
+     * written by earlier versions, which also stored each expiry time, are read too, ignoring the expiry times.
+     * @param file the file to read from.
+     * @param now the current time, in epoch milliseconds.
+     * @param cooldown the current cooldown period, in milliseconds.
+     * @throws IOException if the file exists but cannot be read, or is not a cooldown file.
+     */
+    void load(final File file, final long now, final long cooldown) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Unrecognized cooldown file: " + file.getPath());
+            }
+            byte version = in.readByte();
+            if (version != FILE_VERSION && version != EXPIRY_VERSION) {
+                throw new IOException("Unsupported cooldown file version " + version + ": " + file.getPath());
+            }
+            int count = in.readInt();
+            for (var i = 0; i < count; i++) {
+                var town = new UUID(in.readLong(), in.readLong());
+                long flaggedAt = in.readLong();
+                if (version == EXPIRY_VERSION) {
+                    in.readLong();
+                }
+                if (flaggedAt + cooldown > now && flaggedAt >= getLastFlagged(town)) {
+                    flagged(town, flaggedAt);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.commands;
+
+import com.palmergames.bukkit.towny.TownyUniverse;
+import io.github.townyadvanced.flagwar.FlagWar;
+import io.github.townyadvanced.flagwar.util.Messaging;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+public class FlagWarCommand implements TabExecutor {
+    /** Name of the reload sub-command. */
+    private static final String RELOAD = "reload";
+    /** Name of the alerts sub-command. */
+    private static final String ALERTS = "alerts";
+    /** Argument of the alerts sub-command, opting in. */
+    private static final String ON = "on";
+    /** Argument of the alerts sub-command, opting out. */
+    private static final String OFF = "off";
+    /** Permission needed to reload the configuration. */
+    private static final String RELOAD_PERMISSION = "flagwar.command.reload";
+    /** Permission needed to opt in or out of defence alerts. */
+    private static final String ALERTS_PERMISSION = "flagwar.command.alerts";
+
+    /** Retains the {@link FlagWar} instance, after construction. */
+    private final FlagWar flagWar;
+
+    /**
+     * Constructs the FlagWarCommand, setting {@link #flagWar}.
+     *
+     * @param plugin The FlagWar instance.
+     */
+    public FlagWarCommand(final FlagWar plugin) {
+        this.flagWar = plugin;
+    }
+
+    /**
+     * Handles '/flagwar reload', which reloads the configuration through {@link FlagWar#reloadFlagWarConfig()}, and
+     * '/flagwar alerts [on|off]', which opts the sender in or out of defence alerts, or toggles them.
+     *
+     * @param sender the {@link CommandSender} running the command.
+     * @param command the {@link Command} being run.
+     * @param label the alias used.
+     * @param args the command's arguments.
+     * @return true, as usage is reported through FlagWar's own messages.
+     */
+    @Override
+    public boolean onCommand(final CommandSender sender, final Command command, final String label,
+                             final String[] args) {
+        var subCommand = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "";
+        if (RELOAD.equals(subCommand) && args.length == 1) {
+            reload(sender);
+        } else if (ALERTS.equals(subCommand) && args.length == 1) {
+            alerts(sender, null);
+        } else if (ALERTS.equals(subCommand) && args.length == 2
+            && (ON.equalsIgnoreCase(args[1]) || OFF.equalsIgnoreCase(args[1]))) {
+            alerts(sender, ON.equalsIgnoreCase(args[1]));
+        } else {
+            Messaging.sendPrefixed(sender, "command.usage", label);
+        }
+        return true;
+    }
+
+    private void reload(final CommandSender sender) {
+        if (!sender.hasPermission(RELOAD_PERMISSION)) {
+            Messaging.sendPrefixed(sender, "command.no-permission");
+            return;
+        }
+        try {
+            flagWar.reloadFlagWarConfig();
+            Messaging.sendPrefixed(sender, "command.reload.success");
+        } catch (IllegalArgumentException e) {
+            flagWar.getLogger().log(Level.WARNING, e.getMessage(), e);
+            Messaging.sendPrefixed(sender, "command.reload.failed", e.getMessage());
+        }
+    }
+
+    private static void alerts(final CommandSender sender, final Boolean choice) {
+        if (!sender.hasPermission(ALERTS_PERMISSION)) {
+            Messaging.sendPrefixed(sender, "command.no-permission");
+            return;
+        }
+        if (!(sender instanceof Player)) {
+            Messaging.sendPrefixed(sender, "command.players-only");
+            return;
+        }
+        var resident = TownyUniverse.getInstance().getResident(((Player) sender).getUniqueId());
+        if (resident == null) {
+            Messaging.sendPrefixed(sender, "command.alerts.not-resident");
+            return;
+        }
+        boolean alerting = choice != null ? choice : !FlagWar.isAlerting(resident);
+        FlagWar.setAlerting(resident, alerting);
+        Messaging.sendPrefixed(sender, alerting ? "command.alerts.enabled" : "command.alerts.disabled");
+    }
+
+    /**
+     * Suggests the available sub-commands.
+     *
+     * @param sender the {@link CommandSender} completing the command.
+     * @param command the {@link Command} being completed.
+     * @param alias the alias used.
+     * @param args the command's arguments so far.
+     * @return the matching sub-commands.
+     */
+    @Override
+    public List<String> onTabComplete(final CommandSender sender, final Command command, final String alias,
+                                      final String[] args) {
+        List<String> options;
+        if (args.length == 1) {
+            options = List.of(RELOAD, ALERTS);
+        } else if (args.length == 2 && ALERTS.equalsIgnoreCase(args[0])) {
+            options = List.of(ON, OFF);
+        } else {
+            return List.of();
+        }
+        var prefix = args[args.length - 1].toLowerCase(Locale.ROOT);
+        return options.stream().filter(option -> option.startsWith(prefix)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+/** How defenders are alerted when their town is flagged, as set by the 'alerts.style' key. */
+public enum AlertStyle {
+    /** A message above the hotbar. The default. */
+    ACTION_BAR,
+    /** A title and subtitle in the middle of the screen. */
+    TITLE,
+    /** A prefixed chat message. */
+    CHAT;
+
+    /**
+     * Look up an alert style by its configuration name, such as 'action_bar', 'title' or 'chat'.
+     * @param name the configured name. May be null.
+     * @return the matching AlertStyle, or {@link #ACTION_BAR} if the name is not set.
+     * @throws IllegalArgumentException if the name matches none of them.
+     */
+    public static AlertStyle fromString(final String name) {
+        return EnumNames.parse(AlertStyle.class, name, ACTION_BAR);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+/** Ways a war beacon can be rendered, as set by the 'beacon.render' key. */
+public enum BeaconRenderMode {
+    /** Beacons are placed as real blocks in the world. The default. */
+    WORLD,
+    /** Beacons are only sent to nearby players, as fake block changes. The world is never modified. */
+    CLIENT,
+    /** Beacons are drawn with particles, in the flag's timer color. The world is never modified. */
+    PARTICLE;
+
+    /**
+     * Look up a render mode by its configuration name, such as 'world', 'client' or 'particle'.
+     * @param name the configured name. May be null.
+     * @return the matching BeaconRenderMode, or {@link #WORLD} if the name is not set.
+     * @throws IllegalArgumentException if the name matches none of them.
+     */
+    public static BeaconRenderMode fromString(final String name) {
+        return EnumNames.parse(BeaconRenderMode.class, name, WORLD);
+    }
+}
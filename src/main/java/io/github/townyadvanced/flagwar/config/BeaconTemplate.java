@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed geometry of a war beacon: the offsets of its wireframe and flag (face) blocks, relative to the beacon's
+ * origin (its lowest x, y, and z corner), packed into single integers.
+ * <p>
+ * Templates are built once per configured {@link Shape} and size, so drawing a beacon is only a matter of stamping
+ * the offsets at the beacon's origin.
+ */
+public final class BeaconTemplate {
+
+    /** Number of bits used by each axis of a packed offset. */
+    private static final int AXIS_BITS = 10;
+    /** Mask isolating one axis of a packed offset. */
+    private static final int AXIS_MASK = (1 << AXIS_BITS) - 1;
+    /** Largest size a template can be built for. */
+    private static final int MAX_SIZE = AXIS_MASK + 1;
+
+    /** Shape the template was built for. */
+    private final Shape shape;
+    /** Length of the template's bounding cube, in blocks. */
+    private final int size;
+    /** Packed offsets of the wireframe blocks. */
+    private final int[] wireframe;
+    /** Packed offsets of the flag (face) blocks. */
+    private final int[] faces;
+
+    /** Shapes a beacon can be drawn in. All fit a cube of the configured beacon size. */
+    public enum Shape {
+        /** Cube with a wireframe along its edges and flag-colored faces. The default. */
+        CUBE,
+        /** Single column of flag-colored blocks through the middle of the cube, capped with wireframe blocks. */
+        PILLAR,
+        /** Octahedron shell of flag-colored blocks, with wireframe blocks at its six tips. */
+        HOLLOW_DIAMOND;
+
+        /**
+         * Look up a shape by its configuration name, such as 'cube' or 'hollow_diamond'.
+         * @param name the configured name. May be null.
+         * @return the matching Shape, or {@link #CUBE} if the name is not set.
+         * @throws IllegalArgumentException if the name matches none of them.
+         */
+        public static Shape fromString(final String name) {
+            return EnumNames.parse(Shape.class, name, CUBE);
+        }
+    }
+
+    private BeaconTemplate(final Shape templateShape, final int templateSize, final int[] wireframeOffsets,
+                           final int[] faceOffsets) {
+        this.shape = templateShape;
+        this.size = templateSize;
+        this.wireframe = wireframeOffsets;
+        this.faces = faceOffsets;
+    }
+
+    /**
+     * Build the template of a beacon shape.
+     * @param shape the shape of the beacon.
+     * @param size the length of the beacon's bounding cube, in blocks.
+     * @return the template.
+     * @throws IllegalArgumentException if the size is not positive, or too large to pack.
+     */
+    public static BeaconTemplate of(final Shape shape, final int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Beacon size out of range: " + size);
+        }
+        var wireframe = new int[size * size * size];
+        var faces = new int[size * size * size];
+        var wireframeCount = 0;
+        var faceCount = 0;
+        for (var y = 0; y < size; y++) {
+            for (var z = 0; z < size; z++) {
+                for (var x = 0; x < size; x++) {
+                    var part = classify(shape, size, x, y, z);
+                    if (part == Part.WIREFRAME) {
+                        wireframe[wireframeCount++] = pack(x, y, z);
+                    } else if (part == Part.FACE) {
+                        faces[faceCount++] = pack(x, y, z);
+                    }
+                }
+            }
+        }
+        return new BeaconTemplate(shape, size, Arrays.copyOf(wireframe, wireframeCount),
+            Arrays.copyOf(faces, faceCount));
+    }
+
+    /** What part of a beacon a block is. */
+    private enum Part {
+        /** Not part of the beacon. */
+        NONE,
+        /** Part of the beacon's wireframe. */
+        WIREFRAME,
+        /** Part of the beacon's flag-colored faces. */
+        FACE
+    }
+
+    private static Part classify(final Shape shape, final int size, final int x, final int y, final int z) {
+        int last = size - 1;
+        int mid = last / 2;
+        switch (shape) {
+            case PILLAR:
+                if (x != mid || z != mid) {
+                    return Part.NONE;
+                }
+                return y == 0 || y == last ? Part.WIREFRAME : Part.FACE;
+            case HOLLOW_DIAMOND:
+                if (Math.abs(x - mid) + Math.abs(y - mid) + Math.abs(z - mid) != mid) {
+                    return Part.NONE;
+                }
+                int centered = (x == mid ? 1 : 0) + (y == mid ? 1 : 0) + (z == mid ? 1 : 0);
+                return centered > 1 ? Part.WIREFRAME : Part.FACE;
+            case CUBE:
+            default:
+                int edges = (x == 0 || x == last ? 1 : 0) + (y == 0 || y == last ? 1 : 0)
+                    + (z == 0 || z == last ? 1 : 0);
+                if (edges > 1) {
+                    return Part.WIREFRAME;
+                }
+                return edges == 1 ? Part.FACE : Part.NONE;
+        }
+    }
+
+    private static int pack(final int x, final int y, final int z) {
+        return x | (z << AXIS_BITS) | (y << (AXIS_BITS * 2));
+    }
+
+    /**
+     * @param offset a packed offset.
+     * @return the x component of the offset.
+     */
+    public static int offsetX(final int offset) {
+        return offset & AXIS_MASK;
+    }
+
+    /**
+     * @param offset a packed offset.
+     * @return the y component of the offset.
+     */
+    public static int offsetY(final int offset) {
+        return (offset >>> (AXIS_BITS * 2)) & AXIS_MASK;
+    }
+
+    /**
+     * @param offset a packed offset.
+     * @return the z component of the offset.
+     */
+    public static int offsetZ(final int offset) {
+        return (offset >>> AXIS_BITS) & AXIS_MASK;
+    }
+
+    /** @return the {@link Shape} the template was built for. */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /** @return the length of the template's bounding cube, in blocks. */
+    public int getSize() {
+        return size;
+    }
+
+    /** @return the packed offsets of the wireframe blocks. Shared: must not be modified. */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public int[] getWireframeOffsets() {
+        return wireframe;
+    }
+
+    /** @return the packed offsets of the flag (face) blocks. Shared: must not be modified. */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public int[] getFaceOffsets() {
+        return faces;
+    }
+}
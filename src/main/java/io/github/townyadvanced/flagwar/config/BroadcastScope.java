@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+/** Who receives a war announcement, as set by the 'broadcasts.scope' keys. */
+public enum BroadcastScope {
+    /** Every online player. The default. */
+    SERVER,
+    /** Players in the world of the announced area. */
+    WORLD,
+    /** Players within 'broadcasts.radius' chunks of the announced area. */
+    RADIUS,
+    /** Online members of the towns involved, or of their nations if they have one. */
+    INVOLVED;
+
+    /**
+     * Look up a scope by its configuration name, such as 'server', 'world', 'radius' or 'involved'.
+     * @param name the configured name. May be null.
+     * @return the matching BroadcastScope, or {@link #SERVER} if the name is not set.
+     * @throws IllegalArgumentException if the name matches none of them.
+     */
+    public static BroadcastScope fromString(final String name) {
+        return EnumNames.parse(BroadcastScope.class, name, SERVER);
+    }
+}
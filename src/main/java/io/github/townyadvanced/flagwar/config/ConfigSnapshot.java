@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+import com.palmergames.util.TimeTools;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.function.Function;
+
+/**
+ * Immutable, compiled copy of FlagWar's configuration. Every value is read from the configuration, parsed and checked
+ * once, when the snapshot is built, so reading a value is a plain field access.
+ * <p>
+ * Snapshots are published by {@link FlagWarConfig#compile(ConfigurationSection)}, which swaps the current snapshot in a
+ * single write. A reader always sees one whole snapshot, either the old one or the new one.
+ */
+public final class ConfigSnapshot {
+
+    /** Default for 'flag.waiting_time'. */
+    private static final String DEFAULT_FLAG_WAITING_TIME = "30s";
+    /** Default for 'rendering.max_blocks_per_tick'. */
+    private static final int DEFAULT_MAX_BLOCKS_PER_TICK = 256;
+    /** Default for 'rendering.max_millis_per_tick'. */
+    private static final double DEFAULT_MAX_MILLIS_PER_TICK = 2.0;
+    /** Default for 'beacon.particles.radius'. */
+    private static final int DEFAULT_PARTICLE_RADIUS = 64;
+    /** Default for 'beacon.particles.packets_per_tick'. */
+    private static final int DEFAULT_PARTICLE_PACKETS_PER_TICK = 400;
+    /** Default for 'beacon.particles.interval'. */
+    private static final long DEFAULT_PARTICLE_INTERVAL = 10L;
+    /** Default for 'broadcasts.aggregate_ticks'. */
+    private static final long DEFAULT_BROADCAST_AGGREGATE_TICKS = 20L;
+    /** Default for 'broadcasts.radius'. */
+    private static final int DEFAULT_BROADCAST_RADIUS = 16;
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /** Value of 'rules.allow_attacks'. */
+    private final boolean allowingAttacks;
+    /** Value of 'rules.only_attack_borders'. */
+    private final boolean attackingBordersOnly;
+    /** Value of 'rules.time_to_wait_after_flagged'. */
+    private final long timeToWaitAfterFlagged;
+    /** Value of 'rules.prevent_interaction_while_flagged.town'. */
+    private final boolean flaggedInteractionTown;
+    /** Value of 'rules.prevent_interaction_while_flagged.nation'. */
+    private final boolean flaggedInteractionNation;
+    /** Value of 'rules.flag_takes_ownership_of_town_blocks'. */
+    private final boolean flaggedTownBlockTransferred;
+    /** Value of 'flag.waiting_time', in ticks. */
+    private final long flagWaitingTime;
+    /** Value of 'player_limits.max_active_flags_per_player'. */
+    private final int maxActiveFlagsPerPerson;
+    /** Value of 'player_limits.min_online_in_town'. */
+    private final int minPlayersOnlineInTown;
+    /** Value of 'player_limits.min_online_in_nation'. */
+    private final int minPlayersOnlineInNation;
+    /** Value of 'economy.town_block_captured'. */
+    private final double wonTownBlockReward;
+    /** Value of 'economy.home_block_captured'. */
+    private final double wonHomeBlockReward;
+    /** Value of 'economy.war_flag_cost'. */
+    private final double costToPlaceWarFlag;
+    /** Value of 'economy.attack_defended_reward'. */
+    private final double defendedAttackReward;
+    /** Value of 'beacon.draw'. */
+    private final boolean drawingBeacon;
+    /** Value of 'beacon.radius'. At least 1. */
+    private final int beaconRadius;
+    /** Value of 'beacon.height_above_flag.min'. */
+    private final int beaconMinHeightAboveFlag;
+    /** Value of 'beacon.height_above_flag.max'. */
+    private final int beaconMaxHeightAboveFlag;
+    /** Value of 'beacon.render'. */
+    private final BeaconRenderMode beaconRenderMode;
+    /** Template built for the values of 'beacon.shape' and 'beacon.radius'. */
+    private final BeaconTemplate beaconTemplate;
+    /** Value of 'beacon.particles.radius'. */
+    private final int beaconParticleRadius;
+    /** Value of 'beacon.particles.packets_per_tick'. At least 1. */
+    private final int beaconParticleBudget;
+    /** Value of 'beacon.particles.interval'. At least 1. */
+    private final long beaconParticleInterval;
+    /** Value of 'rendering.max_blocks_per_tick'. At least 1. */
+    private final int maxBlockWritesPerTick;
+    /** Value of 'rendering.max_millis_per_tick', in nanoseconds. */
+    private final long maxBlockWriteNanosPerTick;
+    /** Value of 'broadcasts.aggregate_ticks'. At least 0. */
+    private final long broadcastAggregateTicks;
+    /** Value of 'broadcasts.scope.under_attack'. */
+    private final BroadcastScope underAttackScope;
+    /** Value of 'broadcasts.scope.won'. */
+    private final BroadcastScope wonScope;
+    /** Value of 'broadcasts.scope.defended'. */
+    private final BroadcastScope defendedScope;
+    /** Value of 'broadcasts.radius', in chunks. At least 0. */
+    private final int broadcastRadius;
+    /** Value of 'alerts.enabled'. */
+    private final boolean alertingDefenders;
+    /** Value of 'alerts.style'. */
+    private final AlertStyle alertStyle;
+    /** Value of 'alerts.include_nation'. */
+    private final boolean alertingNation;
+    /** Value of 'extra.debug'. */
+    private final boolean debugging;
+
+    /**
+     * Compile a snapshot of a configuration.
+     * @param config the loaded configuration, usually the plugin's config.yml.
+     * @throws IllegalArgumentException if a named value, such as 'beacon.render', is not one of its known names.
+     */
+    ConfigSnapshot(final ConfigurationSection config) {
+        allowingAttacks = config.getBoolean("rules.allow_attacks");
+        attackingBordersOnly = config.getBoolean("rules.only_attack_borders");
+        timeToWaitAfterFlagged = config.getLong("rules.time_to_wait_after_flagged");
+        flaggedInteractionTown = config.getBoolean("rules.prevent_interaction_while_flagged.town");
+        flaggedInteractionNation = config.getBoolean("rules.prevent_interaction_while_flagged.nation");
+        flaggedTownBlockTransferred = config.getBoolean("rules.flag_takes_ownership_of_town_blocks");
+        flagWaitingTime = TimeTools.convertToTicks(TimeTools.getSeconds(
+            config.getString("flag.waiting_time", DEFAULT_FLAG_WAITING_TIME)));
+
+        maxActiveFlagsPerPerson = config.getInt("player_limits.max_active_flags_per_player");
+        minPlayersOnlineInTown = config.getInt("player_limits.min_online_in_town");
+        minPlayersOnlineInNation = config.getInt("player_limits.min_online_in_nation");
+
+        wonTownBlockReward = config.getDouble("economy.town_block_captured");
+        wonHomeBlockReward = config.getDouble("economy.home_block_captured");
+        costToPlaceWarFlag = config.getDouble("economy.war_flag_cost");
+        defendedAttackReward = config.getDouble("economy.attack_defended_reward");
+
+        drawingBeacon = config.getBoolean("beacon.draw");
+        beaconRadius = Math.max(1, config.getInt("beacon.radius"));
+        beaconMinHeightAboveFlag = config.getInt("beacon.height_above_flag.min");
+        beaconMaxHeightAboveFlag = config.getInt("beacon.height_above_flag.max");
+        beaconRenderMode = named(config, "beacon.render", BeaconRenderMode::fromString);
+        beaconTemplate = BeaconTemplate.of(named(config, "beacon.shape", BeaconTemplate.Shape::fromString),
+            getBeaconSize());
+        beaconParticleRadius = config.getInt("beacon.particles.radius", DEFAULT_PARTICLE_RADIUS);
+        beaconParticleBudget = Math.max(1,
+            config.getInt("beacon.particles.packets_per_tick", DEFAULT_PARTICLE_PACKETS_PER_TICK));
+        beaconParticleInterval = Math.max(1L, config.getLong("beacon.particles.interval", DEFAULT_PARTICLE_INTERVAL));
+
+        maxBlockWritesPerTick = Math.max(1,
+            config.getInt("rendering.max_blocks_per_tick", DEFAULT_MAX_BLOCKS_PER_TICK));
+        maxBlockWriteNanosPerTick = (long) (config.getDouble("rendering.max_millis_per_tick",
+            DEFAULT_MAX_MILLIS_PER_TICK) * NANOS_PER_MILLI);
+
+        broadcastAggregateTicks = Math.max(0L,
+            config.getLong("broadcasts.aggregate_ticks", DEFAULT_BROADCAST_AGGREGATE_TICKS));
+        underAttackScope = named(config, "broadcasts.scope.under_attack", BroadcastScope::fromString);
+        wonScope = named(config, "broadcasts.scope.won", BroadcastScope::fromString);
+        defendedScope = named(config, "broadcasts.scope.defended", BroadcastScope::fromString);
+        broadcastRadius = Math.max(0, config.getInt("broadcasts.radius", DEFAULT_BROADCAST_RADIUS));
+
+        alertingDefenders = config.getBoolean("alerts.enabled", true);
+        alertStyle = named(config, "alerts.style", AlertStyle::fromString);
+        alertingNation = config.getBoolean("alerts.include_nation", true);
+
+        debugging = config.getBoolean("extra.debug");
+    }
+
+    /**
+     * Read a named value, such as a render mode or broadcast scope, reporting the key if the name is unknown.
+     * @param config the loaded configuration.
+     * @param path the key of the value.
+     * @param parser looks up the value by its configured name.
+     * @param <T> the type of the value.
+     * @return the parsed value.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    private static <T> T named(final ConfigurationSection config, final String path,
+                               final Function<String, T> parser) {
+        try {
+            return parser.apply(config.getString(path));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** @return the value of 'rules.allow_attacks'. */
+    public boolean isAllowingAttacks() {
+        return allowingAttacks;
+    }
+
+    /** @return the value of 'rules.only_attack_borders'. */
+    public boolean isAttackingBordersOnly() {
+        return attackingBordersOnly;
+    }
+
+    /** @return the value of 'rules.time_to_wait_after_flagged'. */
+    public long getTimeToWaitAfterFlagged() {
+        return timeToWaitAfterFlagged;
+    }
+
+    /** @return the value of 'rules.prevent_interaction_while_flagged.town'. */
+    public boolean isFlaggedInteractionTown() {
+        return flaggedInteractionTown;
+    }
+
+    /** @return the value of 'rules.prevent_interaction_while_flagged.nation'. */
+    public boolean isFlaggedInteractionNation() {
+        return flaggedInteractionNation;
+    }
+
+    /** @return the value of 'rules.flag_takes_ownership_of_town_blocks'. */
+    public boolean isFlaggedTownBlockTransferred() {
+        return flaggedTownBlockTransferred;
+    }
+
+    /** @return the value of 'flag.waiting_time', in ticks. Defaults to 30 seconds. */
+    public long getFlagWaitingTime() {
+        return flagWaitingTime;
+    }
+
+    /** @return the value of 'player_limits.max_active_flags_per_player'. */
+    public int getMaxActiveFlagsPerPerson() {
+        return maxActiveFlagsPerPerson;
+    }
+
+    /** @return the value of 'player_limits.min_online_in_town'. */
+    public int getMinPlayersOnlineInTown() {
+        return minPlayersOnlineInTown;
+    }
+
+    /** @return the value of 'player_limits.min_online_in_nation'. */
+    public int getMinPlayersOnlineInNation() {
+        return minPlayersOnlineInNation;
+    }
+
+    /** @return the value of 'economy.town_block_captured'. */
+    public double getWonTownBlockReward() {
+        return wonTownBlockReward;
+    }
+
+    /** @return the value of 'economy.home_block_captured'. */
+    public double getWonHomeBlockReward() {
+        return wonHomeBlockReward;
+    }
+
+    /** @return the value of 'economy.war_flag_cost'. */
+    public double getCostToPlaceWarFlag() {
+        return costToPlaceWarFlag;
+    }
+
+    /** @return the value of 'economy.attack_defended_reward'. */
+    public double getDefendedAttackReward() {
+        return defendedAttackReward;
+    }
+
+    /** @return the value of 'beacon.draw'. */
+    public boolean isDrawingBeacon() {
+        return drawingBeacon;
+    }
+
+    /** @return the value of 'beacon.radius', raised to 1 if lower. */
+    public int getBeaconRadius() {
+        return beaconRadius;
+    }
+
+    /** @return the beacon size, calculated as '(r * 2) - 1'. */
+    public int getBeaconSize() {
+        return beaconRadius * 2 - 1;
+    }
+
+    /** @return the value of 'beacon.height_above_flag.min'. */
+    public int getBeaconMinHeightAboveFlag() {
+        return beaconMinHeightAboveFlag;
+    }
+
+    /** @return the value of 'beacon.height_above_flag.max'. */
+    public int getBeaconMaxHeightAboveFlag() {
+        return beaconMaxHeightAboveFlag;
+    }
+
+    /** @return the value of 'beacon.render'. */
+    public BeaconRenderMode getBeaconRenderMode() {
+        return beaconRenderMode;
+    }
+
+    /** @return the {@link BeaconTemplate} of the configured beacon shape and size. */
+    public BeaconTemplate getBeaconTemplate() {
+        return beaconTemplate;
+    }
+
+    /** @return the value of 'beacon.particles.radius'. */
+    public int getBeaconParticleRadius() {
+        return beaconParticleRadius;
+    }
+
+    /** @return the value of 'beacon.particles.packets_per_tick', raised to 1 if lower. */
+    public int getBeaconParticleBudget() {
+        return beaconParticleBudget;
+    }
+
+    /** @return the value of 'beacon.particles.interval', raised to 1 if lower. */
+    public long getBeaconParticleInterval() {
+        return beaconParticleInterval;
+    }
+
+    /** @return the value of 'rendering.max_blocks_per_tick'. */
+    public int getMaxBlockWritesPerTick() {
+        return maxBlockWritesPerTick;
+    }
+
+    /** @return the value of 'rendering.max_millis_per_tick', converted to nanoseconds. */
+    public long getMaxBlockWriteNanosPerTick() {
+        return maxBlockWriteNanosPerTick;
+    }
+
+    /** @return the value of 'broadcasts.aggregate_ticks', raised to 0 if lower. */
+    public long getBroadcastAggregateTicks() {
+        return broadcastAggregateTicks;
+    }
+
+    /** @return the value of 'broadcasts.scope.under_attack'. */
+    public BroadcastScope getUnderAttackScope() {
+        return underAttackScope;
+    }
+
+    /** @return the value of 'broadcasts.scope.won'. */
+    public BroadcastScope getWonScope() {
+        return wonScope;
+    }
+
+    /** @return the value of 'broadcasts.scope.defended'. */
+    public BroadcastScope getDefendedScope() {
+        return defendedScope;
+    }
+
+    /** @return the value of 'broadcasts.radius', in chunks, raised to 0 if lower. */
+    public int getBroadcastRadius() {
+        return broadcastRadius;
+    }
+
+    /** @return the value of 'alerts.enabled'. Defaults to true. */
+    public boolean isAlertingDefenders() {
+        return alertingDefenders;
+    }
+
+    /** @return the value of 'alerts.style'. */
+    public AlertStyle getAlertStyle() {
+        return alertStyle;
+    }
+
+    /** @return the value of 'alerts.include_nation'. Defaults to true. */
+    public boolean isAlertingNation() {
+        return alertingNation;
+    }
+
+    /** @return the value of 'extra.debug'. */
+    public boolean isDebugging() {
+        return debugging;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.config;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Looks up the constants of the configuration enums by their configured names, such as 'action_bar' or 'radius'. */
+final class EnumNames {
+
+    private EnumNames() {
+        throw new IllegalStateException("Utility Class");
+    }
+
+    /**
+     * Look up an enum constant by its configured name, ignoring case and surrounding whitespace.
+     * @param type the enum class.
+     * @param name the configured name. May be null, or blank, if the key is not set.
+     * @param fallback the constant to return if the name is null or blank.
+     * @param <E> the enum type.
+     * @return the matching constant, or the fallback if no name is set.
+     * @throws IllegalArgumentException if the name matches none of the constants.
+     */
+    static <E extends Enum<E>> E parse(final Class<E> type, final String name, final E fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        var normalized = name.trim().toUpperCase(Locale.ROOT);
+        for (E value : type.getEnumConstants()) {
+            if (value.name().equals(normalized)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown value '%s', expected one of %s.", name,
+            Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT)));
+    }
+}
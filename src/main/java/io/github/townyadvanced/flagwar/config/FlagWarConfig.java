@@ -17,14 +17,15 @@
 package io.github.townyadvanced.flagwar.config;
 
 import io.github.townyadvanced.flagwar.FlagWar;
-import com.palmergames.util.TimeTools;
 
-import io.github.townyadvanced.flagwar.util.Messaging;
 import org.bukkit.Material;
-import org.bukkit.Tag;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.plugin.Plugin;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 public final class FlagWarConfig {
 
@@ -33,7 +34,7 @@ public final class FlagWarConfig {
     }
 
     /**
-     * {@link Material} array used for representing the FlagWar Flag Timer, used in both beacons and tops of War Flags.
+     * Default {@link Material} palette of the FlagWar Flag Timer, used when 'flag.timer_blocks' defines no valid block.
      */
     static final Material[] TIMER_MATERIALS = new Material[] {
         Material.LIME_WOOL, Material.GREEN_WOOL, Material.BLUE_WOOL, Material.CYAN_WOOL,
@@ -42,32 +43,95 @@ public final class FlagWarConfig {
 
     /** Base material, or the war flag's post. */
     private static Material flagBaseMaterial = null;
-    /** Light-emitting {@link Material}, spawned on top of the TIMER_MATERIALS of a War Flag. */
+    /** Light-emitting {@link Material}, spawned on top of the timer block of a War Flag. */
     private static Material flagLightMaterial = null;
     /** Beacon wireframe {@link Material}, forming the borders of a beacon. */
     private static Material beaconWireFrameMaterial = null;
+    /** Palette of the Flag Timer, in phase order, used in both beacons and tops of War Flags. Never modified. */
+    private static volatile Material[] timerMaterials = TIMER_MATERIALS;
+    /** Every {@link Material} a flag or beacon is built from. Replaced whenever one of them is set. */
+    private static volatile Set<Material> affectedMaterials = EnumSet.copyOf(Arrays.asList(TIMER_MATERIALS));
+    /** Compiled configuration. Replaced as a whole by {@link #compile(ConfigurationSection)}. */
+    private static volatile ConfigSnapshot snapshot = null;
     /** {@link Plugin} instance, used internally. */
     private static final Plugin PLUGIN = FlagWar.getInstance();
 
     /**
-     * Checks if a {@link Material} should be affected by an operation.
+     * Compile a configuration into a new {@link ConfigSnapshot}, and atomically make it the current one. Getters called
+     * afterwards read the new values; attacks in progress keep the phase interval and beacon they started with.
+     * <p>
+     * The flag and beacon materials are not part of the snapshot: they are only loaded on startup.
+     * @param config the loaded configuration, usually the plugin's config.yml.
+     * @return the new snapshot.
+     * @throws IllegalArgumentException if a value cannot be compiled, in which case the current snapshot is kept.
+     */
+    public static ConfigSnapshot compile(final ConfigurationSection config) {
+        var compiled = new ConfigSnapshot(config);
+        snapshot = compiled;
+        return compiled;
+    }
+
+    /** @return the current {@link ConfigSnapshot}, compiled from the plugin's configuration on first use. */
+    public static ConfigSnapshot getSnapshot() {
+        var current = snapshot;
+        return current != null ? current : compile(PLUGIN.getConfig());
+    }
+
+    /**
+     * Checks if a {@link Material} should be affected by an operation. A single lookup in a precomputed set.
      * @param material simple Material to check.
-     * @return True if the matched Material is used in constructing a war flag's base or light, or the wireframe; Or, if
-     * the material is wool.
+     * @return True if the matched Material is used in constructing a war flag's base or light, the wireframe, or is
+     * part of the timer palette.
      */
     public static boolean isAffectedMaterial(final Material material) {
-        return Tag.WOOL.isTagged(material)
-            || material == getFlagBaseMaterial()
-            || material == getFlagLightMaterial()
-            || material == getBeaconWireFrameMaterial();
+        return affectedMaterials.contains(material);
     }
 
     /**
-     * Returns a copy of the {@link Material} array making up the WarFlag's timer indicators.
+     * Returns a copy of the {@link Material} array making up the WarFlag's timer indicators. Prefer
+     * {@link #getTimerBlock(int)} and {@link #getTimerBlockCount()}, which do not copy.
      * @return a clone of the Material array.
      */
     public static Material[] getTimerBlocks() {
-        return Arrays.copyOf(TIMER_MATERIALS, TIMER_MATERIALS.length);
+        var timer = timerMaterials;
+        return Arrays.copyOf(timer, timer.length);
+    }
+
+    /**
+     * @param phase a flag phase, from 0 (inclusive) to {@link #getTimerBlockCount()} (exclusive).
+     * @return the timer {@link Material} of the phase.
+     */
+    public static Material getTimerBlock(final int phase) {
+        return timerMaterials[phase];
+    }
+
+    /** @return the number of phases in the timer palette. */
+    public static int getTimerBlockCount() {
+        return timerMaterials.length;
+    }
+
+    /**
+     * Sets the timer palette, as loaded from 'flag.timer_blocks' on startup.
+     * @param palette the timer Materials, in phase order. Must not be empty.
+     * @throws IllegalArgumentException if the palette is empty.
+     */
+    public static void setTimerBlocks(final List<Material> palette) {
+        if (palette.isEmpty()) {
+            throw new IllegalArgumentException("The timer palette needs at least one material.");
+        }
+        timerMaterials = palette.toArray(new Material[0]);
+        rebuildAffectedMaterials();
+    }
+
+    /** Rebuild the {@link #affectedMaterials} from the timer palette, flag, and beacon materials. */
+    private static void rebuildAffectedMaterials() {
+        Set<Material> affected = EnumSet.copyOf(Arrays.asList(timerMaterials));
+        for (Material material : new Material[] {flagBaseMaterial, flagLightMaterial, beaconWireFrameMaterial}) {
+            if (material != null) {
+                affected.add(material);
+            }
+        }
+        affectedMaterials = affected;
     }
 
     /**
@@ -75,21 +139,16 @@ public final class FlagWarConfig {
      * @return True if rules.allow_attacks is set to true in the configuration file.
      */
     public static boolean isAllowingAttacks() {
-        return PLUGIN.getConfig().getBoolean("rules.allow_attacks");
+        return getSnapshot().isAllowingAttacks();
     }
 
     /**
-     * Gets the time (seconds) for flag.waiting_time in the configuration file, and stores it as ticks.
+     * Gets the time (seconds) for flag.waiting_time in the configuration file, converted to ticks when compiled.
      * If null, assume 30 seconds.
      * @return the time in ticks.
      */
     public static long getFlagWaitingTime() {
-        var waitingTime = PLUGIN.getConfig().getString("flag.waiting_time");
-        if (waitingTime == null) {
-            waitingTime = "30s";
-        }
-        return TimeTools.convertToTicks(
-            TimeTools.getSeconds(waitingTime));
+        return getSnapshot().getFlagWaitingTime();
     }
 
     /**
@@ -99,16 +158,16 @@ public final class FlagWarConfig {
      * @return true if configured to show debug messages.
      */
     public static boolean isDebugging() {
-        return PLUGIN.getConfig().getBoolean("extra.debug");
+        return getSnapshot().isDebugging();
     }
 
     /**
-     * Gets the time between iterations though the {@link #TIMER_MATERIALS}; a fraction of {@link #getFlagWaitingTime()}
-     * over the length of the array.
+     * Gets the time between iterations though the timer palette; a fraction of {@link #getFlagWaitingTime()} over the
+     * number of phases.
      * @return the temporal difference between color changes, in ticks.
      */
     public static long getTimeBetweenFlagColorChange() {
-        return getFlagWaitingTime() / getTimerBlocks().length;
+        return getFlagWaitingTime() / getTimerBlockCount();
     }
 
     /**
@@ -116,9 +175,7 @@ public final class FlagWarConfig {
      * @return the result of beacon.draw, from the configuration file.
      */
     public static boolean isDrawingBeacon() {
-        var beaconIsDrawn = PLUGIN.getConfig().getBoolean("beacon.draw");
-        Messaging.debug("(Config) Should beacons be drawn: %s", new Object[] {beaconIsDrawn});
-        return beaconIsDrawn;
+        return getSnapshot().isDrawingBeacon();
     }
 
     /**
@@ -126,7 +183,7 @@ public final class FlagWarConfig {
      * @return the result of player_limits.max_active_flags_per_player, from the configuration file.
      */
     public static int getMaxActiveFlagsPerPerson() {
-        return PLUGIN.getConfig().getInt("player_limits.max_active_flags_per_player");
+        return getSnapshot().getMaxActiveFlagsPerPerson();
     }
 
     /** @return the value stored in {@link #flagBaseMaterial}. */
@@ -146,37 +203,67 @@ public final class FlagWarConfig {
 
     /** @return the beacon radius as an integer, defined in the configuration file at the beacon.radius key. */
     public static int getBeaconRadius() {
-        return PLUGIN.getConfig().getInt("beacon.radius");
+        return getSnapshot().getBeaconRadius();
     }
 
     /** @return the beacon size as an integer, calculated as '(r * 2) - 1'. */
     public static int getBeaconSize() {
-        return getBeaconRadius() * 2 - 1;
+        return getSnapshot().getBeaconSize();
+    }
+
+    /** @return the beacon shape, as defined by the 'beacon.shape' key. Defaults to a cube. */
+    public static BeaconTemplate.Shape getBeaconShape() {
+        return getSnapshot().getBeaconTemplate().getShape();
+    }
+
+    /** @return the beacon render mode, as defined by the 'beacon.render' key. Defaults to real world blocks. */
+    public static BeaconRenderMode getBeaconRenderMode() {
+        return getSnapshot().getBeaconRenderMode();
+    }
+
+    /** @return the value of 'beacon.particles.radius': how close a player must be to a flag to see its particles. */
+    public static int getBeaconParticleRadius() {
+        return getSnapshot().getBeaconParticleRadius();
+    }
+
+    /** @return the value of 'beacon.particles.packets_per_tick', shared by every particle beacon. At least 1. */
+    public static int getBeaconParticleBudget() {
+        return getSnapshot().getBeaconParticleBudget();
+    }
+
+    /** @return the value of 'beacon.particles.interval': ticks between two emissions of a beacon. At least 1. */
+    public static long getBeaconParticleInterval() {
+        return getSnapshot().getBeaconParticleInterval();
+    }
+
+    /** @return the precomputed {@link BeaconTemplate} for the configured beacon shape and size. */
+    public static BeaconTemplate getBeaconTemplate() {
+        return getSnapshot().getBeaconTemplate();
     }
 
     /** @return the beacon's minimum y-value above the flag, as defined by the 'beacon.height_above_flag.min' key. */
     public static int getBeaconMinHeightAboveFlag() {
-        return PLUGIN.getConfig().getInt("beacon.height_above_flag.min");
+        return getSnapshot().getBeaconMinHeightAboveFlag();
     }
 
     /** @return the value of 'rules.time_to_wait_after_flag' as a long (ticks). */
     public static long getTimeToWaitAfterFlagged() {
-        return PLUGIN.getConfig().getLong("rules.time_to_wait_after_flagged");
+        return getSnapshot().getTimeToWaitAfterFlagged();
     }
 
     /** @return the value of 'rules.prevent_interaction_while_flagged.town'. */
     public static boolean isFlaggedInteractionTown() {
-        return PLUGIN.getConfig().getBoolean("rules.prevent_interaction_while_flagged.town");
+        return getSnapshot().isFlaggedInteractionTown();
     }
 
     /** @return the value of 'rules.prevent_interaction_while_flagged.nation'. */
     public static boolean isFlaggedInteractionNation() {
-        return PLUGIN.getConfig().getBoolean("rules.prevent_interaction_while_flagged.nation");
+        return getSnapshot().isFlaggedInteractionNation();
     }
 
     /** @return the value of 'beacon.height_above_flag.max'. */
     public static int getBeaconMaxHeightAboveFlag() {
-        return PLUGIN.getConfig().getInt("beacon.height_above_flag.max");
+        return getSnapshot().getBeaconMaxHeightAboveFlag();
     }
 
     /**
@@ -185,6 +272,7 @@ public final class FlagWarConfig {
      */
     public static void setFlagBaseMaterial(final Material flagBaseMat) {
         FlagWarConfig.flagBaseMaterial = flagBaseMat;
+        rebuildAffectedMaterials();
     }
 
     /**
@@ -193,6 +281,7 @@ public final class FlagWarConfig {
      */
     public static void setFlagLightMaterial(final Material flagLightMat) {
         FlagWarConfig.flagLightMaterial = flagLightMat;
+        rebuildAffectedMaterials();
     }
 
     /**
@@ -201,46 +290,96 @@ public final class FlagWarConfig {
      */
     public static void setBeaconWireFrameMaterial(final Material beaconWireFrameMat) {
         FlagWarConfig.beaconWireFrameMaterial = beaconWireFrameMat;
+        rebuildAffectedMaterials();
     }
 
     /** @return the value of 'player_limits.min_online_in_town'.*/
     public static int getMinPlayersOnlineInTownForWar() {
-        return PLUGIN.getConfig().getInt("player_limits.min_online_in_town");
+        return getSnapshot().getMinPlayersOnlineInTown();
     }
 
     /** @return the value of 'player_limits.min_online_in_nation'. */
     public static int getMinPlayersOnlineInNationForWar() {
-        return PLUGIN.getConfig().getInt("player_limits.min_online_in_nation");
+        return getSnapshot().getMinPlayersOnlineInNation();
     }
 
     /** @return the value of 'economy.town_block_captured'. */
     public static double getWonTownBlockReward() {
-        return PLUGIN.getConfig().getDouble("economy.town_block_captured");
+        return getSnapshot().getWonTownBlockReward();
     }
 
     /** @return the value of 'economy.home_block_captured'. */
     public static double getWonHomeBlockReward() {
-        return (PLUGIN.getConfig().getDouble("economy.home_block_captured"));
+        return getSnapshot().getWonHomeBlockReward();
     }
 
     /** @return the value of 'economy.war_flag_cost'. */
     public static double getCostToPlaceWarFlag() {
-
-        return PLUGIN.getConfig().getDouble("economy.war_flag_cost");
+        return getSnapshot().getCostToPlaceWarFlag();
     }
 
     /** @return the value of 'economy.attack_defended_reward'. */
     public static double getDefendedAttackReward() {
-        return PLUGIN.getConfig().getDouble("economy.attack_defended_reward");
+        return getSnapshot().getDefendedAttackReward();
     }
 
     /** @return the value of 'rules.only_attack_borders'. */
     public static boolean isAttackingBordersOnly() {
-        return PLUGIN.getConfig().getBoolean("rules.only_attack_borders");
+        return getSnapshot().isAttackingBordersOnly();
+    }
+
+    /** @return the value of 'rendering.max_blocks_per_tick'. */
+    public static int getMaxBlockWritesPerTick() {
+        return getSnapshot().getMaxBlockWritesPerTick();
+    }
+
+    /** @return the value of 'rendering.max_millis_per_tick', converted to nanoseconds. */
+    public static long getMaxBlockWriteNanosPerTick() {
+        return getSnapshot().getMaxBlockWriteNanosPerTick();
+    }
+
+    /** @return the value of 'broadcasts.aggregate_ticks', raised to 0 if lower. */
+    public static long getBroadcastAggregateTicks() {
+        return getSnapshot().getBroadcastAggregateTicks();
+    }
+
+    /** @return the value of 'broadcasts.scope.under_attack'. */
+    public static BroadcastScope getUnderAttackScope() {
+        return getSnapshot().getUnderAttackScope();
+    }
+
+    /** @return the value of 'broadcasts.scope.won'. */
+    public static BroadcastScope getWonScope() {
+        return getSnapshot().getWonScope();
+    }
+
+    /** @return the value of 'broadcasts.scope.defended'. */
+    public static BroadcastScope getDefendedScope() {
+        return getSnapshot().getDefendedScope();
+    }
+
+    /** @return the value of 'broadcasts.radius', in chunks, raised to 0 if lower. */
+    public static int getBroadcastRadius() {
+        return getSnapshot().getBroadcastRadius();
+    }
+
+    /** @return the value of 'alerts.enabled'. Defaults to true. */
+    public static boolean isAlertingDefenders() {
+        return getSnapshot().isAlertingDefenders();
+    }
+
+    /** @return the value of 'alerts.style'. */
+    public static AlertStyle getAlertStyle() {
+        return getSnapshot().getAlertStyle();
+    }
+
+    /** @return the value of 'alerts.include_nation'. Defaults to true. */
+    public static boolean isAlertingNation() {
+        return getSnapshot().isAlertingNation();
     }
 
     /** @return the value of 'rules.flag_takes_ownership_of_town_blocks'. */
     public static boolean isFlaggedTownBlockTransferred() {
-        return PLUGIN.getConfig().getBoolean("rules.flag_takes_ownership_of_town_blocks");
+        return getSnapshot().isFlaggedTownBlockTransferred();
     }
 }
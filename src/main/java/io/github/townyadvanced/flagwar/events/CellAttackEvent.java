@@ -82,7 +82,7 @@ public class CellAttackEvent extends Event implements Cancellable {
 
     /** @return a new {@link CellUnderAttack} with the Towny instance, attacker, flag base, and attack time stored.  */
     public CellUnderAttack getData() {
-        return new CellUnderAttack(plugin, player.getName(), flagBlock, time);
+        return new CellUnderAttack(plugin, player.getName(), player.getUniqueId(), flagBlock, time);
     }
 
     /** @return the time of the attack (when the event was constructed.) */
@@ -18,18 +18,34 @@ package io.github.townyadvanced.flagwar.i18n;
 
 import io.github.townyadvanced.flagwar.FlagWar;
 import io.github.townyadvanced.flagwar.util.Messaging;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.net.URL;
 import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 public final class LocaleUtil {
+    /** Base name of FlagWar's translation bundles. */
+    private static final String BUNDLE_NAME = "Translation";
+    /** Loads client locales' bundles without falling back to the JVM's default locale. */
+    private static final ResourceBundle.Control NO_FALLBACK =
+        ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+    /** Compiled translations of every locale loaded so far, by locale. Filled lazily. */
+    private static final Map<Locale, MessageCatalog> CATALOGS = new ConcurrentHashMap<>();
+    /** Locale used for each client locale seen so far, as reported by {@link Player#getLocale()}. Filled lazily. */
+    private static final Map<String, Locale> CLIENT_LOCALES = new ConcurrentHashMap<>();
     /** Holds the currentLocale. */
     private static Locale currentLocale;
     /** Holds the messages ResourceBundle. */
     private static ResourceBundle messages;
+    /** Holds the compiled translations of {@link #messages}. Swapped whole when translations are reloaded. */
+    private static volatile MessageCatalog catalog;
 
     private LocaleUtil() {
         throw new IllegalStateException("Utility Class");
@@ -92,8 +108,14 @@ public final class LocaleUtil {
 
     private static void finalizeSetup(final Logger logger, final Locale locale) {
         setLocale(locale);
-        var msg = ResourceBundle.getBundle("Translation", getLocale());
+        // Drop cached bundles, so a reload picks up the locale's translations again.
+        ResourceBundle.clearCache();
+        var msg = ResourceBundle.getBundle(BUNDLE_NAME, getLocale());
         setMessages(msg);
+        catalog = new MessageCatalog(msg);
+        CLIENT_LOCALES.clear();
+        CATALOGS.clear();
+        CATALOGS.put(getLocale(), catalog);
         var usingLocale = String.format("Using locale: %s - %s",
             getMessages().getString("locale"), getMessages().getString("locale-version"));
         logger.info(usingLocale);
@@ -138,6 +160,41 @@ public final class LocaleUtil {
         return u != null;
     }
 
+    /**
+     * Resolve the locale messages to a recipient are translated in. A {@link Player} gets its client's locale, when
+     * FlagWar ships a translation for it, and the {@link #currentLocale} otherwise. Other recipients, such as the
+     * console, always get the currentLocale.
+     * <p>
+     * A client locale is resolved, and its translations compiled, the first time it is seen. Later calls are a single
+     * map lookup.
+     * @param recipient the recipient, or null for the currentLocale.
+     * @return the locale to pass to {@link Translate#from(Locale, String, Object...)}.
+     */
+    public static Locale getLocale(final CommandSender recipient) {
+        if (!(recipient instanceof Player)) {
+            return currentLocale;
+        }
+        return CLIENT_LOCALES.computeIfAbsent(((Player) recipient).getLocale(), LocaleUtil::loadClientLocale);
+    }
+
+    private static Locale loadClientLocale(final String clientLocale) {
+        var separator = clientLocale.indexOf('_');
+        var locale = separator < 0
+            ? new Locale(clientLocale)
+            : new Locale(clientLocale.substring(0, separator), clientLocale.substring(separator + 1));
+        try {
+            var bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale, NO_FALLBACK);
+            if (bundle.getLocale().equals(Locale.ROOT)) {
+                return currentLocale;
+            }
+            CATALOGS.computeIfAbsent(bundle.getLocale(), loaded -> new MessageCatalog(bundle));
+            Messaging.debug("Client locale %s uses translation %s", new Object[]{clientLocale, bundle.getLocale()});
+            return bundle.getLocale();
+        } catch (MissingResourceException e) {
+            return currentLocale;
+        }
+    }
+
     /** @return the {@link #currentLocale}. */
     public static Locale getLocale() {
         return currentLocale;
@@ -161,4 +218,18 @@ public final class LocaleUtil {
     private static void setMessages(final ResourceBundle resourceBundle) {
         messages = resourceBundle;
     }
+
+    /** @return the compiled translations of the {@link #messages} {@link ResourceBundle}. */
+    static MessageCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @param locale a locale returned by {@link #getLocale(CommandSender)}.
+     * @return the compiled translations of the locale, or those of the currentLocale if it was never loaded.
+     */
+    static MessageCatalog getCatalog(final Locale locale) {
+        var loaded = CATALOGS.get(locale);
+        return loaded != null ? loaded : catalog;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.i18n;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * Every translation of a locale, compiled once into {@link MessageTemplate}s, along with their prefixed forms.
+ * Immutable: a new catalog is built, and swapped in, whenever translations are (re)loaded.
+ */
+final class MessageCatalog {
+
+    /** Key of the translation prefixing messages. */
+    private static final String PREFIX_KEY = "message-prefix";
+
+    /** Name of the ResourceBundle the catalog was built from, used in errors. */
+    private final String bundleName;
+    /** Compiled translations, by key. */
+    private final Map<String, MessageTemplate> templates;
+    /** Compiled translations with the prefix spliced in, by key. Holds no entry for those which cannot be spliced. */
+    private final Map<String, MessageTemplate> prefixed;
+    /** Compiled prefix, used for translations which cannot be spliced. */
+    private final MessageTemplate prefix;
+
+    /**
+     * Compile every translation of a bundle.
+     * @param bundle the loaded ResourceBundle.
+     */
+    MessageCatalog(final ResourceBundle bundle) {
+        this.bundleName = bundle.getBaseBundleName();
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        for (String key : bundle.keySet()) {
+            compiled.put(key, MessageTemplate.compile(bundle.getString(key)));
+        }
+        this.prefix = compiled.get(PREFIX_KEY);
+        Map<String, MessageTemplate> withPrefix = new HashMap<>();
+        if (prefix != null) {
+            for (Map.Entry<String, MessageTemplate> entry : compiled.entrySet()) {
+                var spliced = entry.getValue().prefixedBy(prefix);
+                if (spliced != null) {
+                    withPrefix.put(entry.getKey(), spliced);
+                }
+            }
+        }
+        this.templates = Map.copyOf(compiled);
+        this.prefixed = Map.copyOf(withPrefix);
+    }
+
+    /**
+     * Render a translation.
+     * @param key the translation key.
+     * @param args the arguments of the translation.
+     * @return the rendered message.
+     * @throws MissingResourceException if there is no translation for the key.
+     */
+    String render(final String key, final Object... args) {
+        return get(key).render(args);
+    }
+
+    /**
+     * Render a translation, prefixed by the 'message-prefix' translation.
+     * @param key the translation key.
+     * @param args the arguments of the translation.
+     * @return the rendered, prefixed message.
+     * @throws MissingResourceException if there is no translation for the key, or for the prefix.
+     */
+    String renderPrefixed(final String key, final Object... args) {
+        var spliced = prefixed.get(key);
+        if (spliced != null) {
+            return spliced.render(args);
+        }
+        if (prefix == null) {
+            throw missing(PREFIX_KEY);
+        }
+        return prefix.render(render(key, args));
+    }
+
+    private MessageTemplate get(final String key) {
+        var template = templates.get(key);
+        if (template == null) {
+            throw missing(key);
+        }
+        return template;
+    }
+
+    private MissingResourceException missing(final String key) {
+        return new MissingResourceException("Can't find resource for bundle " + bundleName + ", key " + key,
+            bundleName, key);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.i18n;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * A translation, parsed once into literal segments separated by argument placeholders.
+ * <p>
+ * Only the conversions used by FlagWar's translations are compiled: {@code %s} and {@code %d} placeholders, and the
+ * {@code %n} and {@code %%} escapes. A translation using anything else is kept as-is, and rendered through
+ * {@link String#format(String, Object...)}, so custom translations still work.
+ * <p>
+ * Rendering appends into a {@link StringBuilder} reused per thread. A template without placeholders renders to a
+ * String built once, when compiled.
+ */
+final class MessageTemplate {
+
+    /** Reusable rendering buffer, one per thread. */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    /** Capacity above which a rendering buffer is dropped after use, rather than kept. */
+    private static final int MAX_BUFFER_CAPACITY = 4096;
+
+    /** Literal text around the placeholders. Always one more than {@link #conversions}. */
+    private final String[] literals;
+    /** Conversion character of each placeholder, in order. */
+    private final char[] conversions;
+    /** The raw translation, if it could not be compiled and must go through String.format. Otherwise null. */
+    private final String pattern;
+
+    private MessageTemplate(final String[] literalSegments, final char[] placeholders, final String rawPattern) {
+        this.literals = literalSegments;
+        this.conversions = placeholders;
+        this.pattern = rawPattern;
+    }
+
+    /**
+     * Parse a translation.
+     * @param translation the translation, in {@link java.util.Formatter} syntax.
+     * @return the compiled template.
+     */
+    static MessageTemplate compile(final String translation) {
+        List<String> literalSegments = new ArrayList<>();
+        var placeholders = new StringBuilder();
+        var literal = new StringBuilder();
+        for (var i = 0; i < translation.length(); i++) {
+            char c = translation.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char conversion = ++i < translation.length() ? translation.charAt(i) : '\0';
+            if (conversion == 's' || conversion == 'd') {
+                literalSegments.add(literal.toString());
+                literal.setLength(0);
+                placeholders.append(conversion);
+            } else if (conversion == 'n') {
+                literal.append(System.lineSeparator());
+            } else if (conversion == '%') {
+                literal.append('%');
+            } else {
+                return new MessageTemplate(null, null, translation);
+            }
+        }
+        literalSegments.add(literal.toString());
+        return new MessageTemplate(literalSegments.toArray(new String[0]), placeholders.toString().toCharArray(), null);
+    }
+
+    /**
+     * Splice this template into the single {@code %s} placeholder of a prefix, so the prefixed message renders in one
+     * pass.
+     * @param prefix the prefix template, such as 'message-prefix'.
+     * @return the prefixed template, or null if either template could not be compiled, or if the prefix does not have
+     * exactly one {@code %s} placeholder.
+     */
+    MessageTemplate prefixedBy(final MessageTemplate prefix) {
+        if (pattern != null || prefix.pattern != null
+            || prefix.conversions.length != 1 || prefix.conversions[0] != 's') {
+            return null;
+        }
+        var spliced = Arrays.copyOf(literals, literals.length);
+        spliced[0] = prefix.literals[0] + spliced[0];
+        spliced[spliced.length - 1] = spliced[spliced.length - 1] + prefix.literals[1];
+        return new MessageTemplate(spliced, conversions, null);
+    }
+
+    /**
+     * Render the template.
+     * @param args the arguments, one per placeholder. Extra arguments are ignored.
+     * @return the rendered message.
+     * @throws MissingFormatArgumentException if there are fewer arguments than placeholders.
+     */
+    String render(final Object... args) {
+        if (pattern != null) {
+            return String.format(pattern, args);
+        }
+        if (conversions.length == 0) {
+            return literals[0];
+        }
+        if (args.length < conversions.length) {
+            throw new MissingFormatArgumentException("%" + conversions[args.length]);
+        }
+        var buffer = BUFFER.get();
+        buffer.setLength(0);
+        for (var i = 0; i < conversions.length; i++) {
+            buffer.append(literals[i]).append(args[i]);
+        }
+        buffer.append(literals[conversions.length]);
+        var rendered = buffer.toString();
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+}
@@ -16,6 +16,8 @@
 
 package io.github.townyadvanced.flagwar.i18n;
 
+import java.util.Locale;
+
 /**
  * Helper class for abstracting away locale utilities.
  */
@@ -27,42 +29,64 @@ public final class Translate {
 
     /**
      * Takes a Translation key and variable arguments (Varargs), and returns the formatted String.
-     * The key is ran through {@link LocaleUtil#getMessages()} and {@link java.util.ResourceBundle#getString(String)}.
+     * The key is looked up in the current locale's compiled translations, which are parsed once when loaded by
+     * {@link LocaleUtil#setUpLocale(String)}.
      * @param translationKey The translation key, as it appears in a Translation_locale.properties ResourceBundle.
      * @param args The {@link String#format(String, Object...)} arguments to use, in place of {@link Object}s.
      * @return A translated String, with parsed arguments.
      */
     public static String from(final String translationKey, final Object... args) {
-        return String.format(LocaleUtil.getMessages().getString(translationKey), args);
+        return LocaleUtil.getCatalog().render(translationKey, args);
     }
 
     /**
-     * Takes a Translation key and runs it through {@link LocaleUtil#getMessages()} and
-     * {@link java.util.ResourceBundle#getString(String)}.
+     * Takes a Translation key and looks it up in the current locale's compiled translations.
      * @param translationKey The translation key, as it appears in a Translation_locale.properties ResourceBundle.
      * @return A translated String, with formatting applied (necessary for some strings with line-breaks)
      */
     public static String from(final String translationKey) {
-        // Redundant call to format() is intentional
-        return String.format(LocaleUtil.getMessages().getString(translationKey));
+        return LocaleUtil.getCatalog().render(translationKey);
     }
 
     /**
-     * Runs {@link #from(String, Object...)}, then prefixes the message.
+     * Runs {@link #from(String, Object...)}, prefixed by the 'message-prefix' translation. The prefix is spliced into
+     * the translation when compiled, so the message is rendered in a single pass.
      * @param translationKey A translation key, as it appears in a Translation_locale.properties ResourceBundle.
      * @param args The {@link String#format(String, Object...)} arguments to use, in place of {@link Object}s.
      * @return A prefixed message.
      */
     public static String fromPrefixed(final String translationKey, final Object... args) {
-        return from("message-prefix", from(translationKey, args));
+        return LocaleUtil.getCatalog().renderPrefixed(translationKey, args);
     }
 
     /**
-     * Runs {@link #from(String)}, then prefixes the message.
+     * Runs {@link #from(String)}, prefixed by the 'message-prefix' translation.
      * @param translationKey A translation key, as it appears in a Translation_locale.properties ResourceBundle.
      * @return A prefixed message.
      */
     public static String fromPrefixed(final String translationKey) {
-        return from("message-prefix", from(translationKey));
+        return LocaleUtil.getCatalog().renderPrefixed(translationKey);
+    }
+
+    /**
+     * Runs {@link #from(String, Object...)} in a given locale, usually a recipient's.
+     * @param locale the locale, as returned by {@link LocaleUtil#getLocale(org.bukkit.command.CommandSender)}.
+     * @param translationKey The translation key, as it appears in a Translation_locale.properties ResourceBundle.
+     * @param args The {@link String#format(String, Object...)} arguments to use, in place of {@link Object}s.
+     * @return A translated String, with parsed arguments.
+     */
+    public static String from(final Locale locale, final String translationKey, final Object... args) {
+        return LocaleUtil.getCatalog(locale).render(translationKey, args);
+    }
+
+    /**
+     * Runs {@link #fromPrefixed(String, Object...)} in a given locale, usually a recipient's.
+     * @param locale the locale, as returned by {@link LocaleUtil#getLocale(org.bukkit.command.CommandSender)}.
+     * @param translationKey A translation key, as it appears in a Translation_locale.properties ResourceBundle.
+     * @param args The {@link String#format(String, Object...)} arguments to use, in place of {@link Object}s.
+     * @return A prefixed message.
+     */
+    public static String fromPrefixed(final Locale locale, final String translationKey, final Object... args) {
+        return LocaleUtil.getCatalog(locale).renderPrefixed(translationKey, args);
     }
 }
@@ -25,8 +25,11 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
 import org.bukkit.event.block.BlockPistonExtendEvent;
 import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
 
 import com.palmergames.bukkit.towny.Towny;
 import com.palmergames.bukkit.towny.event.actions.TownyBuildEvent;
@@ -103,23 +106,21 @@ public class FlagWarBlockListener implements Listener {
 
 
     /**
-     * Iteratively runs over {@link FlagWar#checkBlock(Player, Block, org.bukkit.event.Cancellable)} using the event's
-     * {@link Player}, {@link Block} ({@link BlockPistonExtendEvent#getBlocks()}), and the
-     * {@link BlockPistonExtendEvent} itself.
+     * Runs {@link FlagWar#checkBlocks(Player, java.util.Collection, org.bukkit.event.Cancellable)} using a null
+     * {@link Player}, the moved {@link Block}s ({@link BlockPistonExtendEvent#getBlocks()}), and the
+     * {@link BlockPistonExtendEvent} itself. A piston cannot move only part of its blocks, so the event is cancelled.
      *
      * @param blockPistonExtendEvent the {@link BlockPistonExtendEvent}.
      */
     @EventHandler(priority = EventPriority.LOWEST)
     @SuppressWarnings("unused")
     public void onBlockPistonExtend(final BlockPistonExtendEvent blockPistonExtendEvent) {
-        for (Block block : blockPistonExtendEvent.getBlocks()) {
-            FlagWar.checkBlock(null, block, blockPistonExtendEvent);
-        }
+        FlagWar.checkBlocks(null, blockPistonExtendEvent.getBlocks(), blockPistonExtendEvent);
     }
 
     /**
-     * Iteratively runs over {@link FlagWar#checkBlock(Player, Block, org.bukkit.event.Cancellable)} using the event's
-     * {@link Player}, {@link Block} ({@link BlockPistonRetractEvent#getBlocks()}), and the
+     * Runs {@link FlagWar#checkBlocks(Player, java.util.Collection, org.bukkit.event.Cancellable)} using a null
+     * {@link Player}, the moved {@link Block}s ({@link BlockPistonRetractEvent#getBlocks()}), and the
      * {@link BlockPistonRetractEvent} itself.
      *
      * Fails fast if {@link BlockPistonRetractEvent#isSticky()} is false.
@@ -132,8 +133,47 @@ public class FlagWarBlockListener implements Listener {
         if (!blockPistonRetractEvent.isSticky()) {
             return;
         }
-        for (Block block : blockPistonRetractEvent.getBlocks()) {
-            FlagWar.checkBlock(null, block, blockPistonRetractEvent);
+        FlagWar.checkBlocks(null, blockPistonRetractEvent.getBlocks(), blockPistonRetractEvent);
+    }
+
+    /**
+     * Cancels the {@link BlockFromToEvent} if water or lava would flow into a {@link FlagWar#isProtectedBlock(Block)}.
+     *
+     * @param blockFromToEvent the {@link BlockFromToEvent}.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    @SuppressWarnings("unused")
+    public void onBlockFromTo(final BlockFromToEvent blockFromToEvent) {
+        if (FlagWar.isProtectedBlock(blockFromToEvent.getToBlock())) {
+            blockFromToEvent.setCancelled(true);
+        }
+    }
+
+    /**
+     * Cancels the {@link BlockPhysicsEvent} if it targets a {@link FlagWar#isProtectedBlock(Block)}, so that flag
+     * blocks never pop off or fall.
+     *
+     * @param blockPhysicsEvent the {@link BlockPhysicsEvent}.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    @SuppressWarnings("unused")
+    public void onBlockPhysics(final BlockPhysicsEvent blockPhysicsEvent) {
+        if (FlagWar.isProtectedBlock(blockPhysicsEvent.getBlock())) {
+            blockPhysicsEvent.setCancelled(true);
+        }
+    }
+
+    /**
+     * Cancels the {@link BlockSpreadEvent} if fire, or anything else, would spread into a
+     * {@link FlagWar#isProtectedBlock(Block)}.
+     *
+     * @param blockSpreadEvent the {@link BlockSpreadEvent}.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    @SuppressWarnings("unused")
+    public void onBlockSpread(final BlockSpreadEvent blockSpreadEvent) {
+        if (FlagWar.isProtectedBlock(blockSpreadEvent.getBlock())) {
+            blockSpreadEvent.setCancelled(true);
         }
     }
 
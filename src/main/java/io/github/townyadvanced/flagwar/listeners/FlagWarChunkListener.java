@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 TownyAdvanced
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.github.townyadvanced.flagwar.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+import io.github.townyadvanced.flagwar.FlagWar;
+
+public class FlagWarChunkListener implements Listener {
+
+    /** Listens for instances of the {@link ChunkLoadEvent}, and queues any flag or beacon block changes which were
+     * waiting on the chunk to load. (See {@link io.github.townyadvanced.flagwar.util.BlockWriteQueue}.)
+     * @param event the {@link ChunkLoadEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onChunkLoad(final ChunkLoadEvent event) {
+        var chunk = event.getChunk();
+        FlagWar.getBlockWriteQueue().chunkLoaded(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+}
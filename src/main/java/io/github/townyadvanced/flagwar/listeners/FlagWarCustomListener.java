@@ -22,7 +22,9 @@ import com.palmergames.bukkit.towny.TownyMessaging;
 import com.palmergames.bukkit.towny.TownySettings;
 import com.palmergames.bukkit.towny.TownyUniverse;
 import com.palmergames.bukkit.towny.event.NationPreTransactionEvent;
+import com.palmergames.bukkit.towny.event.TownAddResidentEvent;
 import com.palmergames.bukkit.towny.event.TownPreTransactionEvent;
+import com.palmergames.bukkit.towny.event.TownRemoveResidentEvent;
 import com.palmergames.bukkit.towny.event.nation.NationPreTownLeaveEvent;
 import com.palmergames.bukkit.towny.event.nation.toggle.NationToggleNeutralEvent;
 import com.palmergames.bukkit.towny.event.town.TownLeaveEvent;
@@ -41,6 +43,7 @@ import io.github.townyadvanced.flagwar.FlagWarAPI;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
 import io.github.townyadvanced.flagwar.events.CellAttackCanceledEvent;
 import io.github.townyadvanced.flagwar.events.CellAttackEvent;
+import io.github.townyadvanced.flagwar.i18n.LocaleUtil;
 import io.github.townyadvanced.flagwar.i18n.Translate;
 import io.github.townyadvanced.flagwar.objects.CellUnderAttack;
 import io.github.townyadvanced.flagwar.events.CellDefendedEvent;
@@ -54,12 +57,24 @@ import org.jetbrains.annotations.NotNull;
 import java.util.logging.Logger;
 
 public class FlagWarCustomListener implements Listener {
-    /** Holds localized string for key: error.player-town-under-attack. */
-    public static final String DENY_FLAG_TOWN_UNDER_ATTACK
-        = Translate.fromPrefixed("error.player-town-under-attack");
-    /** Holds localized string for key: error.player-was-recently-attacked. */
-    public static final String DENY_FLAG_RECENTLY_ATTACKED
-        = Translate.fromPrefixed("error.player-was-recently-attacked");
+    /** Translation key of the message denying an action while the town is under attack. */
+    public static final String DENY_FLAG_TOWN_UNDER_ATTACK_KEY = "error.player-town-under-attack";
+    /** Translation key of the message denying an action while the town was recently attacked. */
+    public static final String DENY_FLAG_RECENTLY_ATTACKED_KEY = "error.player-was-recently-attacked";
+    /**
+     * Holds localized string for key: error.player-town-under-attack, in the server's locale at class load.
+     * @deprecated since FlagWar 0.1.2, marked for future removal. Messages are now rendered in each recipient's
+     * locale: translate {@link #DENY_FLAG_TOWN_UNDER_ATTACK_KEY} instead.
+     */
+    @Deprecated(since = "0.1.2", forRemoval = true)
+    public static final String DENY_FLAG_TOWN_UNDER_ATTACK = Translate.fromPrefixed(DENY_FLAG_TOWN_UNDER_ATTACK_KEY);
+    /**
+     * Holds localized string for key: error.player-was-recently-attacked, in the server's locale at class load.
+     * @deprecated since FlagWar 0.1.2, marked for future removal. Messages are now rendered in each recipient's
+     * locale: translate {@link #DENY_FLAG_RECENTLY_ATTACKED_KEY} instead.
+     */
+    @Deprecated(since = "0.1.2", forRemoval = true)
+    public static final String DENY_FLAG_RECENTLY_ATTACKED = Translate.fromPrefixed(DENY_FLAG_RECENTLY_ATTACKED_KEY);
 
     /** Holds instance of {@link Towny}; defined by {@link #FlagWarCustomListener(FlagWar)}. */
     private Towny towny;
@@ -115,12 +130,15 @@ public class FlagWarCustomListener implements Listener {
         }
         var player = cellDefendedEvent.getPlayer();
         CellUnderAttack cell = cellDefendedEvent.getCell().getAttackData();
-        String broadcast =
-            Translate.fromPrefixed("broadcast.area.defended", getPlayerOrGF(player), cell.getCellString());
 
         tryTownFlagged(cell);
         removeWarZone(cell);
-        towny.getServer().broadcastMessage(broadcast);
+        var defender = getPlayerOrGF(player);
+        var attacker = universe.getResident(cell.getFlagOwnerUUID());
+        var recipients = FlagWar.getBroadcastRecipients(FlagWarConfig.getDefendedScope(),
+            cell.getFlagBaseBlock().getLocation(), defendingTown(cell), residentTown(attacker));
+        FlagWar.getBroadcastAggregator().post(recipients, "broadcast.area.defended",
+            new Object[]{defender, cell.getCellString()}, "broadcast.area.defended.summary", defender);
 
         calculateDefenderReward(player, cell);
     }
@@ -142,7 +160,7 @@ public class FlagWarCustomListener implements Listener {
         var cell = cellWonEvent.getCellUnderAttack();
 
         try {
-            var attackingResident = universe.getResident(cell.getNameOfFlagOwner());
+            var attackingResident = universe.getResident(cell.getFlagOwnerUUID());
 
             // Shouldn't happen
             if (attackingResident == null) {
@@ -162,7 +180,7 @@ public class FlagWarCustomListener implements Listener {
 
             // Payments
             double amount = 0;
-            String moneyTransferMessage = null;
+            String moneyTransferKey = null;
             if (TownyEconomyHandler.isActive()) {
                 String townBlockType = townOrHomeBlock(townBlock);
                 amount = realEstateValue(townBlockType);
@@ -171,21 +189,13 @@ public class FlagWarCustomListener implements Listener {
                     // Defending Town -> Attacker (Pillage)
                     var reason = String.format("War - Won Enemy %s (Pillage)", townBlockType);
                     amount = townPayAttackerSpoils(attackingResident, defendingTown, amount, reason);
-                    moneyTransferMessage = Translate.fromPrefixed("broadcast.area.pillaged",
-                        attackingResident.getFormattedName(),
-                        TownyEconomyHandler.getFormattedBalance(amount),
-                        defendingTown.getFormattedName()
-                    );
+                    moneyTransferKey = "broadcast.area.pillaged";
                 } else if (amount < 0) {
                     // Attacker -> Defending Town (Rebuild cost)
                     amount = -amount; // Inverse the amount so it's positive.
                     var reason = String.format("War - Won Enemy %s (Rebuild Cost)", townBlockType);
                     attackerPayTownRebuild(cell, attackingResident, attackingNation, defendingTown, amount, reason);
-                    moneyTransferMessage = Translate.fromPrefixed("broadcast.area.rebuilding",
-                        attackingResident.getFormattedName(),
-                        TownyEconomyHandler.getFormattedBalance(amount),
-                        defendingTown.getFormattedName()
-                    );
+                    moneyTransferKey = "broadcast.area.rebuilding";
                 }
             }
 
@@ -199,9 +209,11 @@ public class FlagWarCustomListener implements Listener {
             messageWon(cell, attackingResident, attackingNation);
 
             // Money Transfer message.
-            if (TownyEconomyHandler.isActive() && amount != 0 && moneyTransferMessage != null) {
-                messageResident(attackingResident, moneyTransferMessage);
-                TownyMessaging.sendPrefixedTownMessage(defendingTown, moneyTransferMessage);
+            if (TownyEconomyHandler.isActive() && amount != 0 && moneyTransferKey != null) {
+                Object[] args = {attackingResident.getFormattedName(), TownyEconomyHandler.getFormattedBalance(amount),
+                    defendingTown.getFormattedName()};
+                messageResident(attackingResident, moneyTransferKey, args);
+                TownyMessaging.sendPrefixedTownMessage(defendingTown, Translate.fromPrefixed(moneyTransferKey, args));
             }
         } catch (NotRegisteredException e) {
             e.printStackTrace();
@@ -239,12 +251,12 @@ public class FlagWarCustomListener implements Listener {
             if (FlagWarAPI.isUnderAttack(nationPreTownLeaveEvent.getTown())
                 && FlagWarConfig.isFlaggedInteractionTown()) {
 
-                nationPreTownLeaveEvent.setCancelMessage(DENY_FLAG_TOWN_UNDER_ATTACK);
+                nationPreTownLeaveEvent.setCancelMessage(Translate.fromPrefixed(DENY_FLAG_TOWN_UNDER_ATTACK_KEY));
                 nationPreTownLeaveEvent.setCancelled(true);
             }
 
             if (isAfterFlaggedCooldownActive(nationPreTownLeaveEvent.getTown())) {
-                nationPreTownLeaveEvent.setCancelMessage(DENY_FLAG_RECENTLY_ATTACKED);
+                nationPreTownLeaveEvent.setCancelMessage(Translate.fromPrefixed(DENY_FLAG_RECENTLY_ATTACKED_KEY));
                 nationPreTownLeaveEvent.setCancelled(true);
             }
         }
@@ -254,9 +266,9 @@ public class FlagWarCustomListener implements Listener {
      * Listens for attempts to interact with a {@link Nation}'s
      * {@link com.palmergames.bukkit.towny.object.EconomyAccount}.
      * <p>
-     * If enabled, and an attempt to withdraw from the Nation's account while a {@link Town} in the Nation is under
-     * attack occurs, check if the Town itself is under attack or if it is still in a post-flag cooldown period, and
-     * cancel the transaction if either is true.
+     * If enabled, and an attempt to withdraw from the Nation's account occurs, check if any {@link Town} in the Nation
+     * is under attack (a single lookup against the nation index), or if any is still in a post-flag cooldown period,
+     * and cancel the transaction if either is true.
      * <p>
      * Intended to prevent players from taking the Nation's money and running whilst in the middle of a war.
      *
@@ -270,8 +282,14 @@ public class FlagWarCustomListener implements Listener {
             && FlagWarConfig.isFlaggedInteractionNation()
             && nationPreTransactionEvent.getTransaction().getType().equals(TransactionType.WITHDRAW)) {
 
-            for (Town town : nationPreTransactionEvent.getNation().getTowns()) {
-                if (FlagWarAPI.isUnderAttack(town) || isAfterFlaggedCooldownActive(town)) {
+            var nation = nationPreTransactionEvent.getNation();
+            if (FlagWarAPI.isUnderAttack(nation)) {
+                nationPreTransactionEvent.setCancelMessage(Translate.fromPrefixed("error.nation-under-attack"));
+                nationPreTransactionEvent.setCancelled(true);
+                return;
+            }
+            for (Town town : nation.getTowns()) {
+                if (isAfterFlaggedCooldownActive(town)) {
                     nationPreTransactionEvent.setCancelMessage(Translate.fromPrefixed("error.nation-under-attack"));
                     nationPreTransactionEvent.setCancelled(true);
                     return;
@@ -292,7 +310,7 @@ public class FlagWarCustomListener implements Listener {
     @SuppressWarnings("unused")
     public void onTownWithdraw(final TownPreTransactionEvent townPreTransactionEvent) {
         if (FlagWarConfig.isAllowingAttacks() && isAfterFlaggedCooldownActive(townPreTransactionEvent.getTown())) {
-            townPreTransactionEvent.setCancelMessage(DENY_FLAG_RECENTLY_ATTACKED);
+            townPreTransactionEvent.setCancelMessage(Translate.fromPrefixed(DENY_FLAG_RECENTLY_ATTACKED_KEY));
             townPreTransactionEvent.setCancelled(true);
         }
     }
@@ -310,9 +328,11 @@ public class FlagWarCustomListener implements Listener {
     public void onTownSetHomeBlock(final TownPreSetHomeBlockEvent townPreSetHomeBlockEvent) {
         if (FlagWarConfig.isAllowingAttacks() && FlagWarConfig.isFlaggedInteractionTown()) {
             if (FlagWarAPI.isUnderAttack(townPreSetHomeBlockEvent.getTown())) {
-                cancelTownPreSetHomeBlockEvent(townPreSetHomeBlockEvent, DENY_FLAG_TOWN_UNDER_ATTACK);
+                cancelTownPreSetHomeBlockEvent(townPreSetHomeBlockEvent,
+                    denyMessage(townPreSetHomeBlockEvent.getPlayer(), DENY_FLAG_TOWN_UNDER_ATTACK_KEY));
             } else if (isAfterFlaggedCooldownActive(townPreSetHomeBlockEvent.getTown())) {
-                cancelTownPreSetHomeBlockEvent(townPreSetHomeBlockEvent, DENY_FLAG_RECENTLY_ATTACKED);
+                cancelTownPreSetHomeBlockEvent(townPreSetHomeBlockEvent,
+                    denyMessage(townPreSetHomeBlockEvent.getPlayer(), DENY_FLAG_RECENTLY_ATTACKED_KEY));
             }
         }
     }
@@ -338,7 +358,7 @@ public class FlagWarCustomListener implements Listener {
                 nationToggleNeutralEvent.setCancelMessage(Translate.fromPrefixed("error.cannot-toggle-peaceful"));
             } else if (nationToggleNeutralEvent.getFutureState() && !FlagWarAPI.getCellsUnderAttack().isEmpty()) {
                 for (Resident resident : nationToggleNeutralEvent.getNation().getResidents()) {
-                    FlagWar.removeAttackerFlags(resident.getName());
+                    FlagWar.removeAttackerFlags(resident.getUUID());
                 }
             }
         }
@@ -358,10 +378,12 @@ public class FlagWarCustomListener implements Listener {
         if (FlagWarConfig.isAllowingAttacks() && FlagWarConfig.isFlaggedInteractionTown()) {
             if (FlagWarAPI.isUnderAttack(townLeaveEvent.getTown())) {
                 townLeaveEvent.setCancelled(true);
-                townLeaveEvent.setCancelMessage(DENY_FLAG_TOWN_UNDER_ATTACK);
+                townLeaveEvent.setCancelMessage(
+                    denyMessage(townLeaveEvent.getResident().getPlayer(), DENY_FLAG_TOWN_UNDER_ATTACK_KEY));
             } else if (isAfterFlaggedCooldownActive(townLeaveEvent.getTown())) {
                 townLeaveEvent.setCancelled(true);
-                townLeaveEvent.setCancelMessage(DENY_FLAG_RECENTLY_ATTACKED);
+                townLeaveEvent.setCancelMessage(
+                    denyMessage(townLeaveEvent.getResident().getPlayer(), DENY_FLAG_RECENTLY_ATTACKED_KEY));
             }
         }
     }
@@ -380,15 +402,42 @@ public class FlagWarCustomListener implements Listener {
     private void onWarPreUnclaimed(final TownPreUnclaimCmdEvent townPreUnclaimCmdEvent) {
         if (FlagWarConfig.isFlaggedInteractionTown()) {
             if (FlagWarAPI.isUnderAttack(townPreUnclaimCmdEvent.getTown())) {
-                townPreUnclaimCmdEvent.setCancelMessage(DENY_FLAG_TOWN_UNDER_ATTACK);
+                townPreUnclaimCmdEvent.setCancelMessage(
+                    denyMessage(townPreUnclaimCmdEvent.getResident().getPlayer(), DENY_FLAG_TOWN_UNDER_ATTACK_KEY));
                 townPreUnclaimCmdEvent.setCancelled(true);
             } else if (isAfterFlaggedCooldownActive(townPreUnclaimCmdEvent.getTown())) {
-                townPreUnclaimCmdEvent.setCancelMessage(DENY_FLAG_RECENTLY_ATTACKED);
+                townPreUnclaimCmdEvent.setCancelMessage(
+                    denyMessage(townPreUnclaimCmdEvent.getResident().getPlayer(), DENY_FLAG_RECENTLY_ATTACKED_KEY));
                 townPreUnclaimCmdEvent.setCancelled(true);
             }
         }
     }
 
+    /**
+     * Index a {@link Resident} joining a {@link Town} as one of its online members, if they are online.
+     *
+     * @param townAddResidentEvent Event fired by {@link Towny} when a Resident joins a Town.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onTownAddResident(final TownAddResidentEvent townAddResidentEvent) {
+        var player = townAddResidentEvent.getResident().getPlayer();
+        if (player != null && player.isOnline()) {
+            FlagWar.getOnlineMembers().update(player, townAddResidentEvent.getTown().getUUID());
+        }
+    }
+
+    /**
+     * Remove a {@link Resident} leaving a {@link Town} from its online members.
+     *
+     * @param townRemoveResidentEvent Event fired by {@link Towny} when a Resident leaves, or is removed from, a Town.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onTownRemoveResident(final TownRemoveResidentEvent townRemoveResidentEvent) {
+        FlagWar.getOnlineMembers().remove(townRemoveResidentEvent.getResident().getUUID());
+    }
+
     /**
      * Try getting the {@link Town} from the {@link CellUnderAttack}, and set the clock for when it was last flagged.
      *
@@ -434,14 +483,12 @@ public class FlagWarCustomListener implements Listener {
 
     private void messageWon(final CellUnderAttack cell, final Resident atkRes, final Nation atkNat) {
         String resName = atkRes.getFormattedName();
-        String natName = atkNat.getFormattedName();
-        String msg;
-        if (atkNat.hasTag()) {
-            msg = Translate.fromPrefixed("broadcast.area.won", resName, atkNat.getTag(), cell.getCellString());
-        } else {
-            msg = Translate.fromPrefixed("broadcast.area.won", resName, natName, cell.getCellString());
-        }
-        TownyMessaging.sendGlobalMessage(msg);
+        String natName = atkNat.hasTag() ? atkNat.getTag() : atkNat.getFormattedName();
+        Object[] args = {resName, natName, cell.getCellString()};
+        var recipients = FlagWar.getBroadcastRecipients(FlagWarConfig.getWonScope(),
+            cell.getFlagBaseBlock().getLocation(), defendingTown(cell), residentTown(atkRes));
+        FlagWar.getBroadcastAggregator().post(recipients, "broadcast.area.won", args, "broadcast.area.won.summary",
+            resName, natName);
     }
 
     private double realEstateValue(final String reasonType) {
@@ -513,7 +560,7 @@ public class FlagWarCustomListener implements Listener {
      */
     private void calculateDefenderReward(final Player dP, final CellUnderAttack cell) {
         if (TownyEconomyHandler.isActive()) {
-                var attackingPlayer = universe.getResident(cell.getNameOfFlagOwner());
+                var attackingPlayer = universe.getResident(cell.getFlagOwnerUUID());
                 Resident defendingPlayer = null;
 
                 if (dP != null) {
@@ -537,7 +584,7 @@ public class FlagWarCustomListener implements Listener {
             && atkRes.getAccount().deposit(
             FlagWarConfig.getDefendedAttackReward(), "FlagWar Attack Defended (GF)")) {
 
-            messageResident(atkRes, Translate.fromPrefixed("area.defended.attacker.greater-forces", styledMoney));
+            messageResident(atkRes, "area.defended.attacker.greater-forces", styledMoney);
         } else if (atkRes.getAccount().payTo(
             FlagWarConfig.getDefendedAttackReward(), defRes, "FlagWar Attack Defended")
             && defRes != null) {
@@ -546,6 +593,40 @@ public class FlagWarCustomListener implements Listener {
         }
     }
 
+    /**
+     * @param cell a {@link CellUnderAttack}.
+     * @return the Town defending the cell, or null if it has none, or it no longer exists.
+     */
+    private Town defendingTown(final CellUnderAttack cell) {
+        var townUUID = cell.getDefendingTownUUID();
+        return townUUID == null ? null : universe.getTown(townUUID);
+    }
+
+    /**
+     * @param resident a {@link Resident}. May be null.
+     * @return the Resident's Town, or null if there is no resident, or it has no town.
+     */
+    private static Town residentTown(final Resident resident) {
+        if (resident == null || !resident.hasTown()) {
+            return null;
+        }
+        try {
+            return resident.getTown();
+        } catch (NotRegisteredException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Translate a deny message in the locale of the {@link Player} whose action is denied.
+     * @param player the player, or null if the action has none, in which case the server's locale is used.
+     * @param translationKey the translation key, such as {@link #DENY_FLAG_TOWN_UNDER_ATTACK_KEY}.
+     * @return the prefixed message.
+     */
+    private static String denyMessage(final Player player, final String translationKey) {
+        return Translate.fromPrefixed(LocaleUtil.getLocale(player), translationKey);
+    }
+
     /**
      * Takes a {@link Player} object, and gets the associated name. If the player is a valid {@link Resident}, get the
      * formatted name from it's Resident. If Null, "Greater&nbsp;Forces" is used instead.
@@ -568,9 +649,10 @@ public class FlagWarCustomListener implements Listener {
         return playerName;
     }
 
-    private void messageResident(final Resident resident, final String message) {
+    private void messageResident(final Resident resident, final String translationKey, final Object... args) {
         try {
-            TownyMessaging.sendResidentMessage(resident, message);
+            TownyMessaging.sendResidentMessage(resident,
+                Translate.fromPrefixed(LocaleUtil.getLocale(resident.getPlayer()), translationKey, args));
         } catch (TownyException e) {
             logger.warning("Unable to send resident a message.");
             logger.warning(e.getMessage());
@@ -580,14 +662,16 @@ public class FlagWarCustomListener implements Listener {
     private void msgAttackDefended(final Resident atkRes, final Resident defRes, final String formattedMoney) {
         String message;
         try {
-            message = Translate.fromPrefixed("area.defended.attacker", defRes.getFormattedName(), formattedMoney);
+            message = Translate.fromPrefixed(LocaleUtil.getLocale(atkRes.getPlayer()), "area.defended.attacker",
+                defRes.getFormattedName(), formattedMoney);
             TownyMessaging.sendResidentMessage(atkRes, message);
         } catch (TownyException e) {
             logger.warning("Unable to message an attacker about a defended attack!");
             logger.warning(e.getMessage());
         }
         try {
-            message = Translate.fromPrefixed("area.defended.defender", atkRes.getFormattedName(), formattedMoney);
+            message = Translate.fromPrefixed(LocaleUtil.getLocale(defRes.getPlayer()), "area.defended.defender",
+                atkRes.getFormattedName(), formattedMoney);
             TownyMessaging.sendResidentMessage(defRes, message);
         } catch (TownyException e) {
             logger.warning("Unable to message a defender about a defended attack!");
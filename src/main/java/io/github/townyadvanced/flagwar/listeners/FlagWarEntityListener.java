@@ -17,10 +17,10 @@
 
 package io.github.townyadvanced.flagwar.listeners;
 
-import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 
 import io.github.townyadvanced.flagwar.FlagWar;
@@ -28,15 +28,25 @@ import io.github.townyadvanced.flagwar.FlagWar;
 public class FlagWarEntityListener implements Listener {
 
     /** Listens for instances of the {@link EntityExplodeEvent},
-     * and runs a {@link FlagWar#checkBlock(org.bukkit.entity.Player, Block, org.bukkit.event.Cancellable)}
-     * for each block against a null {@link org.bukkit.entity.Player}.
+     * and runs {@link FlagWar#checkBlocks(org.bukkit.entity.Player, java.util.Collection)} over its block list against
+     * a null {@link org.bukkit.entity.Player}, so that protected blocks are spared and the rest still explode.
      * @param event the {@link EntityExplodeEvent}.
      */
     @EventHandler(priority = EventPriority.LOWEST)
     @SuppressWarnings("unused")
     public void onEntityExplode(final EntityExplodeEvent event) {
-        for (Block block : event.blockList()) {
-            FlagWar.checkBlock(null, block, event);
+        FlagWar.checkBlocks(null, event.blockList());
+    }
+
+    /** Cancels the {@link EntityChangeBlockEvent} if an entity, such as an enderman or a falling block, would change
+     * a {@link FlagWar#isProtectedBlock(org.bukkit.block.Block)}.
+     * @param event the {@link EntityChangeBlockEvent}.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    @SuppressWarnings("unused")
+    public void onEntityChangeBlock(final EntityChangeBlockEvent event) {
+        if (FlagWar.isProtectedBlock(event.getBlock())) {
+            event.setCancelled(true);
         }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import io.github.townyadvanced.flagwar.FlagWar;
+
+/**
+ * Keeps client-side beacons (see {@link io.github.townyadvanced.flagwar.ClientBeaconRenderer}), and the
+ * {@link io.github.townyadvanced.flagwar.util.PlayerGrid} and
+ * {@link io.github.townyadvanced.flagwar.util.OnlineMemberIndex} scoped broadcasts and defence alerts are resolved
+ * through, in sync with players.
+ */
+public class FlagWarPlayerListener implements Listener {
+
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+
+    /**
+     * Add a joining player to the player grid and online member index, and send them client-side beacons.
+     * @param event the {@link PlayerJoinEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onPlayerJoin(final PlayerJoinEvent event) {
+        FlagWar.getPlayerGrid().update(event.getPlayer(), event.getPlayer().getLocation());
+        FlagWar.getOnlineMembers().update(event.getPlayer(), FlagWar.getTownUUID(event.getPlayer()));
+        FlagWar.getClientBeaconRenderer().resend(event.getPlayer());
+    }
+
+    /**
+     * Remove a leaving player from the player grid and online member index, and forget the client-side beacons shown
+     * to them.
+     * @param event the {@link PlayerQuitEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onPlayerQuit(final PlayerQuitEvent event) {
+        FlagWar.getPlayerGrid().remove(event.getPlayer());
+        FlagWar.getOnlineMembers().remove(event.getPlayer().getUniqueId());
+        FlagWar.getClientBeaconRenderer().forget(event.getPlayer());
+    }
+
+    /**
+     * Move a teleporting player in the player grid, and resend client-side beacons.
+     * @param event the {@link PlayerTeleportEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    @SuppressWarnings("unused")
+    public void onPlayerTeleport(final PlayerTeleportEvent event) {
+        if (event.getTo() != null) {
+            FlagWar.getPlayerGrid().update(event.getPlayer(), event.getTo());
+        }
+        FlagWar.getClientBeaconRenderer().resend(event.getPlayer());
+    }
+
+    /**
+     * Move a player in the player grid after a change of world, and resend client-side beacons.
+     * @param event the {@link PlayerChangedWorldEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onPlayerChangedWorld(final PlayerChangedWorldEvent event) {
+        FlagWar.getPlayerGrid().update(event.getPlayer(), event.getPlayer().getLocation());
+        FlagWar.getClientBeaconRenderer().resend(event.getPlayer());
+    }
+
+    /**
+     * Move a respawning player in the player grid, and resend client-side beacons.
+     * @param event the {@link PlayerRespawnEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    @SuppressWarnings("unused")
+    public void onPlayerRespawn(final PlayerRespawnEvent event) {
+        FlagWar.getPlayerGrid().update(event.getPlayer(), event.getRespawnLocation());
+        FlagWar.getClientBeaconRenderer().resend(event.getPlayer());
+    }
+
+    /**
+     * When a player walks into another chunk, move them in the player grid, and show them the client-side beacons which
+     * came into range.
+     * @param event the {@link PlayerMoveEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    @SuppressWarnings("unused")
+    public void onPlayerMove(final PlayerMoveEvent event) {
+        var to = event.getTo();
+        var from = event.getFrom();
+        if (to == null || ((from.getBlockX() >> CHUNK_SHIFT) == (to.getBlockX() >> CHUNK_SHIFT)
+            && (from.getBlockZ() >> CHUNK_SHIFT) == (to.getBlockZ() >> CHUNK_SHIFT))) {
+            return;
+        }
+        FlagWar.getPlayerGrid().update(event.getPlayer(), to);
+        FlagWar.getClientBeaconRenderer().refresh(event.getPlayer());
+    }
+}
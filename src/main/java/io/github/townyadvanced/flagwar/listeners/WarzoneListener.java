@@ -26,8 +26,10 @@ import com.palmergames.bukkit.towny.event.actions.TownySwitchEvent;
 import com.palmergames.bukkit.towny.object.PlayerCache.TownBlockStatus;
 import com.palmergames.bukkit.towny.war.common.WarZoneConfig;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import io.github.townyadvanced.flagwar.i18n.LocaleUtil;
 import io.github.townyadvanced.flagwar.i18n.Translate;
 import org.bukkit.Material;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
@@ -60,7 +62,7 @@ public class WarzoneListener implements Listener {
 
         if (!WarZoneConfig.isEditableMaterialInWarZone(mat)) {
             townyDestroyEvent.setCancelled(true);
-            townyDestroyEvent.setMessage(msgCannotEdit("destroy", mat));
+            townyDestroyEvent.setMessage(msgCannotEdit(player, "destroy", mat));
         }
         townyDestroyEvent.setCancelled(false);
     }
@@ -84,7 +86,7 @@ public class WarzoneListener implements Listener {
 
         if (!WarZoneConfig.isEditableMaterialInWarZone(mat)) {
             townyBuildEvent.setCancelled(true);
-            townyBuildEvent.setMessage(msgCannotEdit("build", mat));
+            townyBuildEvent.setMessage(msgCannotEdit(player, "build", mat));
             return;
         }
         townyBuildEvent.setCancelled(false);
@@ -108,7 +110,7 @@ public class WarzoneListener implements Listener {
 
         if (!WarZoneConfig.isAllowingItemUseInWarZone()) {
             townyItemuseEvent.setCancelled(true);
-            townyItemuseEvent.setMessage(Translate.from("error.warzone.cannot-use-item"));
+            townyItemuseEvent.setMessage(Translate.from(LocaleUtil.getLocale(player), "error.warzone.cannot-use-item"));
             return;
         }
         townyItemuseEvent.setCancelled(false);
@@ -132,7 +134,8 @@ public class WarzoneListener implements Listener {
 
         if (!WarZoneConfig.isAllowingSwitchesInWarZone()) {
             townySwitchEvent.setCancelled(true);
-            townySwitchEvent.setMessage(Translate.from("error.warzone.cannot-use-switch"));
+            townySwitchEvent.setMessage(
+                Translate.from(LocaleUtil.getLocale(player), "error.warzone.cannot-use-switch"));
             return;
         }
         townySwitchEvent.setCancelled(false);
@@ -160,11 +163,13 @@ public class WarzoneListener implements Listener {
      * Helper function constructing the cancellation messages for {@link #onBuild(TownyBuildEvent)} and
      * {@link #onDestroy(TownyDestroyEvent)}.
      *
+     * @param player the {@link Player} the message is for, which sets its locale.
      * @param args or if the cancellation message is related to 'build' or 'destroy'
      * @param material the {@link Material} that cannot be modified.
      * @return The cancellation string for the calling method, translated from the 'error.warzone.cannot-edit' key.
      */
-    private String msgCannotEdit(final String args, final Material material) {
-        return Translate.fromPrefixed("error.warzone.cannot-edit", args, material.toString().toLowerCase());
+    private String msgCannotEdit(final Player player, final String args, final Material material) {
+        return Translate.fromPrefixed(LocaleUtil.getLocale(player), "error.warzone.cannot-edit", args,
+            material.toString().toLowerCase());
     }
 }
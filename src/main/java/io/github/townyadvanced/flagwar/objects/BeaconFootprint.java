@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.objects;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The positions a war beacon placed as real blocks: a cubic bounding box, and the members of the beacon within it,
+ * as bits indexed by their offset in the box. Journaled with an attack, so that a resumed attack takes over exactly
+ * the beacon blocks it left standing, and nothing else.
+ */
+public final class BeaconFootprint {
+
+    /** Lowest x coordinate of the bounding box. */
+    private final int minX;
+    /** Lowest y coordinate of the bounding box. */
+    private final int minY;
+    /** Lowest z coordinate of the bounding box. */
+    private final int minZ;
+    /** Length of the bounding box along each axis. */
+    private final int span;
+    /** Members of the beacon, indexed by {@link #index(int, int, int)}. */
+    private final BitSet members;
+
+    /**
+     * Constructs a footprint. The members are copied.
+     * @param originX lowest x coordinate of the bounding box.
+     * @param originY lowest y coordinate of the bounding box.
+     * @param originZ lowest z coordinate of the bounding box.
+     * @param size length of the bounding box along each axis.
+     * @param bits members of the beacon, indexed by {@link #index(int, int, int)}.
+     */
+    public BeaconFootprint(final int originX, final int originY, final int originZ, final int size,
+                           final BitSet bits) {
+        this.minX = originX;
+        this.minY = originY;
+        this.minZ = originZ;
+        this.span = size;
+        this.members = (BitSet) bits.clone();
+    }
+
+    /**
+     * @param x x offset within the bounding box.
+     * @param y y offset within the bounding box.
+     * @param z z offset within the bounding box.
+     * @param size length of the bounding box along each axis.
+     * @return the index of the offset's bit.
+     */
+    static int index(final int x, final int y, final int z, final int size) {
+        return (y * size + z) * size + x;
+    }
+
+    private int index(final int x, final int y, final int z) {
+        return index(x, y, z, span);
+    }
+
+    /** @return the lowest x coordinate of the bounding box. */
+    public int getMinX() {
+        return minX;
+    }
+
+    /** @return the lowest y coordinate of the bounding box. */
+    public int getMinY() {
+        return minY;
+    }
+
+    /** @return the lowest z coordinate of the bounding box. */
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /** @return the length of the bounding box along each axis. */
+    public int getSpan() {
+        return span;
+    }
+
+    /** @return a copy of the members of the beacon. */
+    public BitSet getMembers() {
+        return (BitSet) members.clone();
+    }
+
+    /**
+     * @param x block x coordinate.
+     * @param y block y coordinate.
+     * @param z block z coordinate.
+     * @return true if the position is a member of the beacon.
+     */
+    public boolean contains(final int x, final int y, final int z) {
+        int dx = x - minX;
+        int dy = y - minY;
+        int dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= span || dy >= span || dz >= span) {
+            return false;
+        }
+        return members.get(index(dx, dy, dz));
+    }
+
+    /**
+     * @param world the world of the beacon.
+     * @return the blocks of the beacon's members.
+     */
+    public List<Block> getBlocks(final World world) {
+        List<Block> blocks = new ArrayList<>(members.cardinality());
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            int x = i % span;
+            int z = (i / span) % span;
+            int y = i / span / span;
+            blocks.add(world.getBlockAt(minX + x, minY + y, minZ + z));
+        }
+        return blocks;
+    }
+}
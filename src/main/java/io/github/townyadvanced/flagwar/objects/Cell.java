@@ -18,6 +18,7 @@
 package io.github.townyadvanced.flagwar.objects;
 
 import io.github.townyadvanced.flagwar.FlagWarAPI;
+import io.github.townyadvanced.flagwar.util.PackedKeys;
 import java.util.Objects;
 import org.bukkit.Location;
 
@@ -62,11 +63,12 @@ public class Cell {
     }
 
     /**
-     * Constructs the {@link Cell} based on a supplied {@link Location}. Runs through {@link Cell#parse(Location)}.
+     * Constructs the {@link Cell} containing a supplied {@link Location}, as {@link Cell#parse(Location)} would.
      * @param location the Location of the Cell.
      */
     public Cell(final Location location) {
-        this(Cell.parse(location));
+        this(Objects.requireNonNull(location.getWorld()).getName(), toCellCoordinate(location.getBlockX()),
+            toCellCoordinate(location.getBlockZ()));
     }
 
     /** @return the {@link #xVal} value of the {@link Cell}. */
@@ -84,6 +86,61 @@ public class Cell {
         return cellsWorldName;
     }
 
+    /** @return the {@link #xVal} and {@link #zVal} of the {@link Cell}, packed by {@link #key(int, int)}. */
+    public long getKey() {
+        return key(xVal, zVal);
+    }
+
+    /**
+     * Convert a block coordinate to the coordinate of the cell containing it. Uses a shift when
+     * {@link Coord#getCellSize()} is a power of two, and {@link Math#floorDiv(int, int)} otherwise.
+     * @param blockCoordinate the block's x or z coordinate.
+     * @return the matching cell x or z coordinate.
+     */
+    public static int toCellCoordinate(final int blockCoordinate) {
+        int cellSize = Coord.getCellSize();
+        if ((cellSize & (cellSize - 1)) == 0) {
+            return blockCoordinate >> Integer.numberOfTrailingZeros(cellSize);
+        }
+        return Math.floorDiv(blockCoordinate, cellSize);
+    }
+
+    /**
+     * Pack cell coordinates into a single key, without constructing a Cell.
+     * @param cellX the cell's x coordinate.
+     * @param cellZ the cell's z coordinate.
+     * @return the packed key.
+     */
+    public static long key(final int cellX, final int cellZ) {
+        return PackedKeys.pack(cellX, cellZ);
+    }
+
+    /**
+     * Pack the coordinates of the cell containing a block position into a single key, without constructing a Cell.
+     * @param blockX the block's x coordinate.
+     * @param blockZ the block's z coordinate.
+     * @return the packed key of the block's cell.
+     */
+    public static long keyAt(final int blockX, final int blockZ) {
+        return key(toCellCoordinate(blockX), toCellCoordinate(blockZ));
+    }
+
+    /**
+     * @param key a key packed by {@link #key(int, int)}.
+     * @return the cell x coordinate of the key.
+     */
+    public static int keyX(final long key) {
+        return PackedKeys.unpackX(key);
+    }
+
+    /**
+     * @param key a key packed by {@link #key(int, int)}.
+     * @return the cell z coordinate of the key.
+     */
+    public static int keyZ(final long key) {
+        return PackedKeys.unpackZ(key);
+    }
+
     /**
      * Parse raw {@link #xVal} and {@link #zVal}, as well as the world name to construct a new Cell.
      * @param worldName the name of the {@link org.bukkit.World} the cell is found in.
@@ -93,12 +150,7 @@ public class Cell {
      * ({@link Coord#getCellSize}).
      */
     public static Cell parse(final String worldName, final int x, final int z) {
-        int cellSize = Coord.getCellSize();
-        int xResult = x / cellSize;
-        int zResult = z / cellSize;
-        boolean xNeedFix = x % cellSize != 0;
-        boolean zNeedFix = z % cellSize != 0;
-        return new Cell(worldName, xResult - (x < 0 && xNeedFix ? 1 : 0), zResult - (z < 0 && zNeedFix ? 1 : 0));
+        return new Cell(worldName, toCellCoordinate(x), toCellCoordinate(z));
     }
 
     /**
@@ -19,21 +19,32 @@ package io.github.townyadvanced.flagwar.objects;
 
 import io.github.townyadvanced.flagwar.CellAttackThread;
 import io.github.townyadvanced.flagwar.FlagWar;
+import io.github.townyadvanced.flagwar.config.BeaconRenderMode;
+import io.github.townyadvanced.flagwar.config.BeaconTemplate;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import io.github.townyadvanced.flagwar.i18n.Translate;
+import io.github.townyadvanced.flagwar.util.BlockWriteQueue;
 import io.github.townyadvanced.flagwar.util.Messaging;
+import io.github.townyadvanced.flagwar.util.TimingWheel;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 
 import com.palmergames.bukkit.towny.Towny;
+import com.palmergames.bukkit.towny.TownyUniverse;
 import com.palmergames.bukkit.towny.object.Coord;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
 
 public class CellUnderAttack extends Cell {
 
@@ -44,6 +55,8 @@ public class CellUnderAttack extends Cell {
 
     /** Holds the name of the war flag owner. */
     private final String nameOfFlagOwner;
+    /** Holds the UUID of the war flag owner. */
+    private final UUID flagOwnerUUID;
     /** Holds the {@link Block} used as the base of the war flag. */
     private final Block flagBaseBlock;
     /** Holds the {@link Block} representing middle of the traditional war flag. */
@@ -53,13 +66,39 @@ public class CellUnderAttack extends Cell {
     /** Holds the value between timer phases for both the war flag and the beacon. */
     private final long flagPhaseInterval;
     /** {@link List} of {@link Block}s used in the war beacon's body. */
-    private List<Block> beaconFlagBlocks;
+    private List<Block> beaconFlagBlocks = new ArrayList<>();
     /** {@link List} of {@link Block}s used for the war beacon's wireframe. */
-    private List<Block> beaconWireframeBlocks;
-    /** Identifies the phase the warflag is in. **/
-    private int flagPhaseID;
-    /** A thread used to update the state of the {@link CellUnderAttack} using the scheduleSyncRepeatingTask. */
-    private int thread;
+    private List<Block> beaconWireframeBlocks = new ArrayList<>();
+    /** Blocks of the beacon (wireframe or flag), as bits indexed by their offset within {@link #beaconSpan}. */
+    private BitSet beaconMembers = new BitSet();
+    /** World of the beacon, or null if no beacon was drawn. */
+    private World beaconWorld;
+    /** Lowest x coordinate of the beacon's bounding box. */
+    private int beaconMinX;
+    /** Lowest y coordinate of the beacon's bounding box. */
+    private int beaconMinY;
+    /** Lowest z coordinate of the beacon's bounding box. */
+    private int beaconMinZ;
+    /** Length of the beacon's bounding box along each axis. */
+    private int beaconSpan;
+    /** How the beacon was rendered. Fixed when the flag is drawn, so a config change cannot strand a beacon. */
+    private BeaconRenderMode beaconRender = BeaconRenderMode.WORLD;
+    /**
+     * Beacon blocks journaled before a restart, or null. They may still stand where a chunk was unloaded when the flag
+     * was taken down, so they are taken over by the redrawn beacon, or cleared, when the flag is drawn.
+     */
+    private BeaconFootprint leftoverBeacon;
+    /** True once {@link #destroyFlag()} ran. Stops a flag whose chunks were still loading from being drawn. */
+    private boolean flagDestroyed;
+    /**
+     * Identifies the phase the warflag is in. Only written from the main thread; volatile so that readers on other
+     * threads always see the latest phase.
+     **/
+    private volatile int flagPhaseID;
+    /** The timer advancing the phases of the {@link CellUnderAttack}, or null if the attack has not begun. */
+    private TimingWheel.Timeout timer;
+    /** UUID of the {@link Town} defending the cell, if known. Set before the attack is published to other threads. */
+    private UUID defendingTownUUID;
 
 
 
@@ -68,17 +107,20 @@ public class CellUnderAttack extends Cell {
      *
      * @param townyInst Instance of {@link Towny}
      * @param flagOwner Name of the Resident that placed the flag
+     * @param flagOwnerId UUID of the Resident that placed the flag
      * @param flagBase {@link Block} representing the "flag pole" of the block
      * @param phaseTime Time (as a long) between Material shifting the flag and beacon.
      */
-    public CellUnderAttack(final Towny townyInst, final String flagOwner, final Block flagBase, final long phaseTime) {
+    public CellUnderAttack(final Towny townyInst, final String flagOwner, final UUID flagOwnerId, final Block flagBase,
+                           final long phaseTime) {
 
-        super(flagBase.getLocation());
+        super(flagBase.getWorld().getName(), toCellCoordinate(flagBase.getX()),
+            toCellCoordinate(flagBase.getZ()));
         this.towny = townyInst;
         this.nameOfFlagOwner = flagOwner;
+        this.flagOwnerUUID = flagOwnerId;
         this.flagBaseBlock = flagBase;
         this.flagPhaseID = 0;
-        this.thread = -1;
 
         var world = flagBase.getWorld();
         this.flagTimerBlock = world.getBlockAt(flagBase.getX(), flagBase.getY() + 1, flagBase.getZ());
@@ -87,6 +129,34 @@ public class CellUnderAttack extends Cell {
         this.flagPhaseInterval = phaseTime;
     }
 
+    /**
+     * Prepares the CellUnderAttack, resolving the flag owner's UUID from their Towny {@link Resident}.
+     *
+     * @param townyInst Instance of {@link Towny}
+     * @param flagOwner Name of the Resident that placed the flag
+     * @param flagBase {@link Block} representing the "flag pole" of the block
+     * @param phaseTime Time (as a long) between Material shifting the flag and beacon.
+     * @deprecated since FlagWar 0.1.2, marked for future removal. Names are not stable identifiers, use
+     * {@link #CellUnderAttack(Towny, String, UUID, Block, long)} instead.
+     */
+    @Deprecated(since = "0.1.2", forRemoval = true)
+    public CellUnderAttack(final Towny townyInst, final String flagOwner, final Block flagBase, final long phaseTime) {
+        this(townyInst, flagOwner, resolveUUID(flagOwner), flagBase, phaseTime);
+    }
+
+    /**
+     * Resolve a player's UUID from their name, through Towny.
+     * @param playerName the name of the player.
+     * @return the UUID of the matching {@link Resident}; or the offline-mode UUID for the name, if there is none.
+     */
+    private static UUID resolveUUID(final String playerName) {
+        Resident resident = TownyUniverse.getInstance().getResident(playerName);
+        if (resident != null) {
+            return resident.getUUID();
+        }
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + playerName).getBytes(StandardCharsets.UTF_8));
+    }
+
     /** @return if {@link CellUnderAttack} equals a given {@link Object}. (Defers to {@link Cell#equals(Object)}.) */
     @Override
     public boolean equals(final Object obj) {
@@ -124,47 +194,89 @@ public class CellUnderAttack extends Cell {
             return;
         }
 
-        int outerEdge = beaconSize - 1;
-        Messaging.debug("(Beacon) Drawing. Now iterating over blocks.");
-        for (var y = 0; y < beaconSize; y++) {
-            for (var z = 0; z < beaconSize; z++) {
-                for (var x = 0; x < beaconSize; x++) {
-                    var block = flagBaseBlock.getWorld().getBlockAt(minBlock.getX() + x,
-                        minBlock.getY() + y, minBlock.getZ() + z);
-                    if (block.isEmpty()) {
-                        Messaging.debug("(Beacon) Spawning %s at %d, %d, %d", new Object[] {block.toString(), x, y, z});
-                        drawBeaconOrWireframe(outerEdge, y, z, x, block);
-                    }
+        var template = FlagWarConfig.getBeaconTemplate();
+        Messaging.debug("(Beacon) Drawing. Now stamping the %s template.", new Object[] {template.getShape()});
+        beaconMembers = new BitSet();
+        beaconWorld = minBlock.getWorld();
+        beaconMinX = minBlock.getX();
+        beaconMinY = minBlock.getY();
+        beaconMinZ = minBlock.getZ();
+        beaconSpan = template.getSize();
+        stampBeacon(minBlock, template.getWireframeOffsets(), beaconWireframeBlocks);
+        stampBeacon(minBlock, template.getFaceOffsets(), beaconFlagBlocks);
+    }
+
+    /**
+     * Collect the empty blocks found at a set of {@link BeaconTemplate} offsets from the beacon's origin, and mark them
+     * in the {@link #beaconMembers}. Blocks of the {@link #leftoverBeacon} are collected too, when the beacon is placed
+     * in the world: they were placed by this attack before the restart, and must be tracked to be removed with it.
+     * @param origin the Block at the origin-point of the beacon.
+     * @param offsets the packed offsets to stamp.
+     * @param target the list to add the blocks to.
+     */
+    private void stampBeacon(final Block origin, final int[] offsets, final List<Block> target) {
+        var world = origin.getWorld();
+        boolean debugging = FlagWarConfig.isDebugging();
+        for (int offset : offsets) {
+            int x = BeaconTemplate.offsetX(offset);
+            int y = BeaconTemplate.offsetY(offset);
+            int z = BeaconTemplate.offsetZ(offset);
+            var block = world.getBlockAt(origin.getX() + x, origin.getY() + y, origin.getZ() + z);
+            if (block.isEmpty() || (beaconRender == BeaconRenderMode.WORLD && isLeftoverBeacon(block))) {
+                if (debugging) {
+                    Messaging.debug("(Beacon) Spawning %s at %d, %d, %d", new Object[] {block.toString(), x, y, z});
                 }
+                target.add(block);
+                beaconMembers.set(beaconIndex(x, y, z));
             }
         }
     }
 
-    private void drawBeaconOrWireframe(final int edge, final int y, final int z, final int x, final Block block) {
-        int edgeCount = getEdgeCount(x, y, z, edge);
-        if (edgeCount > 1) {
-            beaconWireframeBlocks.add(block);
-        } else if (edgeCount == 1) {
-            beaconFlagBlocks.add(block);
+    /**
+     * @param block the supplied {@link Block}.
+     * @return true if the Block is part of the {@link #leftoverBeacon}, and still holds a beacon material.
+     */
+    private boolean isLeftoverBeacon(final Block block) {
+        return leftoverBeacon != null && leftoverBeacon.contains(block.getX(), block.getY(), block.getZ())
+            && isBeaconMaterial(block.getType());
+    }
+
+    /**
+     * Queue the blocks of the {@link #leftoverBeacon} which the redrawn beacon did not take over to be set as AIR,
+     * whatever the beacon is now rendered as.
+     */
+    private void clearLeftoverBeacon() {
+        if (leftoverBeacon == null) {
+            return;
+        }
+        var writes = FlagWar.getBlockWriteQueue();
+        for (Block block : leftoverBeacon.getBlocks(flagBaseBlock.getWorld())) {
+            boolean takenOver = beaconRender == BeaconRenderMode.WORLD && isPartOfBeacon(block);
+            if (!takenOver && isBeaconMaterial(block.getType())) {
+                writes.set(block, Material.AIR);
+            }
         }
+        leftoverBeacon = null;
     }
 
-    private Block getTopOfFlagBlock() {
-        return flagLightBlock;
+    private static boolean isBeaconMaterial(final Material material) {
+        if (material == FlagWarConfig.getBeaconWireFrameMaterial()) {
+            return true;
+        }
+        for (var phase = 0; phase < FlagWarConfig.getTimerBlockCount(); phase++) {
+            if (FlagWarConfig.getTimerBlock(phase) == material) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private int getEdgeCount(final int x, final int y, final int z, final int outerEdge) {
-        return (zeroOrEq(x, outerEdge) ? 1 : 0) + (zeroOrEq(y, outerEdge) ? 1 : 0) + (zeroOrEq(z, outerEdge) ? 1 : 0);
+    private int beaconIndex(final int x, final int y, final int z) {
+        return BeaconFootprint.index(x, y, z, beaconSpan);
     }
 
-    /**
-     * Simple Boolean to determine if an integer (a) is 0, or matches the secondary integer (b).
-     * @param a the number being evaluated.
-     * @param b the number being compared against.
-     * @return TRUE if n is either 0 or equal to max.
-     */
-    private boolean zeroOrEq(final int a, final int b) {
-        return a == 0 || a == b;
+    private Block getTopOfFlagBlock() {
+        return flagLightBlock;
     }
 
     /**
@@ -197,15 +309,73 @@ public class CellUnderAttack extends Cell {
         return nameOfFlagOwner;
     }
 
+    /** @return an unmodifiable view of the {@link #beaconFlagBlocks}. */
+    public List<Block> getBeaconFlagBlocks() {
+        return Collections.unmodifiableList(beaconFlagBlocks);
+    }
+
+    /** @return an unmodifiable view of the {@link #beaconWireframeBlocks}. */
+    public List<Block> getBeaconWireframeBlocks() {
+        return Collections.unmodifiableList(beaconWireframeBlocks);
+    }
+
+    /** @return the value of {@link #flagOwnerUUID}. */
+    public UUID getFlagOwnerUUID() {
+        return flagOwnerUUID;
+    }
+
+    /** @return the value of {@link #defendingTownUUID}, or null if the defending town is not known. */
+    public UUID getDefendingTownUUID() {
+        return defendingTownUUID;
+    }
+
+    /**
+     * Records the defending {@link Town} of the cell. Set when the attack is registered, and used to index the attack
+     * by its defenders. The defending nation is not recorded: it is resolved from the town's current nation.
+     * @param town the Town owning the cell.
+     */
+    public void setDefendingTown(final Town town) {
+        this.defendingTownUUID = town.getUUID();
+    }
+
+    /** @return how the beacon is rendered, once the flag is drawn. */
+    public BeaconRenderMode getBeaconRenderMode() {
+        return beaconRender;
+    }
+
+    /**
+     * @return the positions of the beacon placed as real blocks in the world; or, until the flag is drawn, the
+     * {@link #leftoverBeacon} it will take over. Null if there are none.
+     */
+    public BeaconFootprint getPlacedBeacon() {
+        if (beaconWorld == null) {
+            return leftoverBeacon;
+        }
+        if (beaconRender != BeaconRenderMode.WORLD) {
+            return null;
+        }
+        return new BeaconFootprint(beaconMinX, beaconMinY, beaconMinZ, beaconSpan, beaconMembers);
+    }
+
+    /** @return the value of {@link #flagPhaseInterval}, in ticks. */
+    public long getFlagPhaseInterval() {
+        return flagPhaseInterval;
+    }
+
+    /** @return the current value of {@link #flagPhaseID}. Safe to call from any thread. */
+    public int getFlagPhaseID() {
+        return flagPhaseID;
+    }
+
     /** @return TRUE if the {@link #flagPhaseID} is equal or greater than the length of
-     * {@link FlagWarConfig#getTimerBlocks()} */
+     * {@link FlagWarConfig#getTimerBlockCount()} */
     public boolean hasEnded() {
-        return flagPhaseID >= FlagWarConfig.getTimerBlocks().length;
+        return flagPhaseID >= FlagWarConfig.getTimerBlockCount();
     }
 
     /** Function to increment the {@link #flagPhaseID} and then run {@link #updateFlag()}. */
     public void changeFlag() {
-        flagPhaseID += 1;
+        flagPhaseID = flagPhaseID + 1;
         updateFlag();
     }
 
@@ -214,14 +384,49 @@ public class CellUnderAttack extends Cell {
      * First, runs {@link #loadBeacon()}. Then, sets the {@link #flagBaseBlock} to the type defined by
      * {@link FlagWarConfig#getFlagBaseMaterial()}. Runs {@link #updateFlag()}, then proceeds to draw the
      * {@link #flagLightBlock}. Finally, for each {@link Block} in {@link #beaconWireframeBlocks}, draws it.
+     * <p>
+     * Blocks are queued on the {@link FlagWar#getBlockWriteQueue()}, and drawn over the following ticks. If any chunk
+     * of the cell is not loaded, it is loaded asynchronously first, and the flag is drawn once it is.
+     * <p>
+     * The flag's blocks are added to the {@link FlagWar#getProtectedBlocks()} straight away; the beacon's, once drawn.
      */
     public void drawFlag() {
+        var protectedBlocks = FlagWar.getProtectedBlocks();
+        protectedBlocks.add(flagBaseBlock);
+        protectedBlocks.add(flagTimerBlock);
+        protectedBlocks.add(flagLightBlock);
+        int cellSize = Coord.getCellSize();
+        BlockWriteQueue.whenLoaded(flagBaseBlock.getWorld(), getX() * cellSize, getZ() * cellSize,
+            (getX() + 1) * cellSize - 1, (getZ() + 1) * cellSize - 1, this::drawLoadedFlag);
+    }
+
+    /** Draw the flag, once every chunk of the cell is loaded. See {@link #drawFlag()}. */
+    private void drawLoadedFlag() {
+        if (flagDestroyed) {
+            return;
+        }
+        beaconRender = FlagWarConfig.getBeaconRenderMode();
         loadBeacon();
-        flagBaseBlock.setType(FlagWarConfig.getFlagBaseMaterial());
+        clearLeftoverBeacon();
+        var writes = FlagWar.getBlockWriteQueue();
+        writes.set(flagBaseBlock, FlagWarConfig.getFlagBaseMaterial());
         updateFlag();
-        flagLightBlock.setType(FlagWarConfig.getFlagLightMaterial());
+        writes.set(flagLightBlock, FlagWarConfig.getFlagLightMaterial());
+        if (beaconRender == BeaconRenderMode.CLIENT) {
+            FlagWar.getClientBeaconRenderer().show(this);
+            return;
+        }
+        if (beaconRender == BeaconRenderMode.PARTICLE) {
+            FlagWar.getParticleBeaconRenderer().show(this);
+            return;
+        }
+        var protectedBlocks = FlagWar.getProtectedBlocks();
         for (Block block : beaconWireframeBlocks) {
-            block.setType(FlagWarConfig.getBeaconWireFrameMaterial());
+            writes.set(block, FlagWarConfig.getBeaconWireFrameMaterial());
+            protectedBlocks.add(block);
+        }
+        for (Block block : beaconFlagBlocks) {
+            protectedBlocks.add(block);
         }
     }
 
@@ -229,48 +434,90 @@ public class CellUnderAttack extends Cell {
      * If {@link #hasEnded()} returns False, update the {@link #flagTimerBlock} from the timerBlock array, using the
      * {@link #flagPhaseID} for the array ID. Iterate through and update the {@link #beaconFlagBlocks}.
      * Finally, log the update on the INFO channel.
+     * <p>
+     * The flag timer is queued as a priority write, ahead of every beacon block.
      */
     public void updateFlag() {
-        Material[] timer = FlagWarConfig.getTimerBlocks();
         if (!hasEnded()) {
-            flagTimerBlock.setType(timer[flagPhaseID]);
+            var phaseMaterial = FlagWarConfig.getTimerBlock(flagPhaseID);
+            var writes = FlagWar.getBlockWriteQueue();
+            writes.set(flagTimerBlock, phaseMaterial, true);
             LOGGER.log(Level.INFO, () ->
-                Translate.from("log.warflag-updated", getCellString(), timer[flagPhaseID].toString()));
+                Translate.from("log.warflag-updated", getCellString(), phaseMaterial.toString()));
+            if (beaconRender == BeaconRenderMode.CLIENT) {
+                FlagWar.getClientBeaconRenderer().update(this);
+                return;
+            }
+            if (beaconRender == BeaconRenderMode.PARTICLE) {
+                // Particles pick up the new phase on their next emission.
+                return;
+            }
             for (Block block : beaconFlagBlocks) {
-                block.setType(timer[flagPhaseID]);
+                writes.set(block, phaseMaterial);
             }
         }
     }
 
-    /** Set all blocks constituting the war flag and beacon as AIR. */
+    /**
+     * Queue all blocks constituting the war flag and beacon to be set as AIR, and stop protecting them. If the flag
+     * was never drawn, the {@link #leftoverBeacon} it would have taken over is cleared instead.
+     */
     public void destroyFlag() {
-        flagLightBlock.setType(Material.AIR);
-        flagTimerBlock.setType(Material.AIR);
-        flagBaseBlock.setType(Material.AIR);
+        flagDestroyed = true;
+        clearLeftoverBeacon();
+        var protectedBlocks = FlagWar.getProtectedBlocks();
+        protectedBlocks.remove(flagBaseBlock);
+        protectedBlocks.remove(flagTimerBlock);
+        protectedBlocks.remove(flagLightBlock);
+        var writes = FlagWar.getBlockWriteQueue();
+        writes.set(flagLightBlock, Material.AIR);
+        writes.set(flagTimerBlock, Material.AIR, true);
+        writes.set(flagBaseBlock, Material.AIR);
+        if (beaconRender == BeaconRenderMode.CLIENT) {
+            FlagWar.getClientBeaconRenderer().hide(this);
+            return;
+        }
+        if (beaconRender == BeaconRenderMode.PARTICLE) {
+            FlagWar.getParticleBeaconRenderer().hide(this);
+            return;
+        }
         for (Block block : beaconFlagBlocks) {
-            block.setType(Material.AIR);
+            writes.set(block, Material.AIR);
+            protectedBlocks.remove(block);
         }
         for (Block block : beaconWireframeBlocks) {
-            block.setType(Material.AIR);
+            writes.set(block, Material.AIR);
+            protectedBlocks.remove(block);
         }
     }
 
     /**
-     * {@link #drawFlag()}, then schedule a {@link CellAttackThread} synchronously on the main thread, using the
-     * {@link #flagPhaseInterval} as both the repeat delay and runtime timer.
+     * {@link #drawFlag()}, then schedule a {@link CellAttackThread} on FlagWar's shared flag timer, using the
+     * {@link #flagPhaseInterval} as both the initial delay and the repeat interval.
      */
     public void beginAttack() {
         drawFlag();
-        thread = towny.getServer().getScheduler().scheduleSyncRepeatingTask(towny,
-            new CellAttackThread(this),
-            this.flagPhaseInterval,
-            this.flagPhaseInterval);
+        timer = FlagWar.scheduleFlagTimer(new CellAttackThread(this), this.flagPhaseInterval);
     }
 
-    /** Cancels the {@link #thread} task, started in {@link #beginAttack()}. Then runs {@link #destroyFlag()}.*/
+    /**
+     * Resume an attack interrupted by a restart: set the {@link #flagPhaseID} (capped to the last phase of the current
+     * palette, see {@link FlagWarConfig#getTimerBlockCount()}), then {@link #drawFlag()} and schedule the
+     * {@link CellAttackThread}, as {@link #beginAttack()} does. Journaled beacon blocks left standing since the attack
+     * was suspended are taken over by the redrawn beacon, or cleared if it no longer covers them.
+     * @param phaseID the phase the attack had reached.
+     * @param leftover the journaled positions of the beacon placed in the world before the restart, or null.
+     */
+    public void resumeAttack(final int phaseID, final BeaconFootprint leftover) {
+        leftoverBeacon = leftover;
+        flagPhaseID = Math.max(0, Math.min(phaseID, FlagWarConfig.getTimerBlockCount() - 1));
+        beginAttack();
+    }
+
+    /** Cancels the {@link #timer}, started in {@link #beginAttack()}. Then runs {@link #destroyFlag()}.*/
     public void cancel() {
-        if (thread != -1) {
-            towny.getServer().getScheduler().cancelTask(thread);
+        if (timer != null) {
+            timer.cancel();
         }
         destroyFlag();
     }
@@ -326,12 +573,20 @@ public class CellUnderAttack extends Cell {
     }
 
     /**
+     * Constant-time check: blocks outside the beacon's bounding box are rejected outright, and the rest are looked up
+     * in the {@link #beaconMembers}.
      * @param block Supplied {@link Block}.
      * @return TRUE if the supplied Block is contained in either the {@link #beaconFlagBlocks} or
      * {@link #beaconWireframeBlocks} lists.
      */
     public boolean isPartOfBeacon(final Block block) {
-        return beaconFlagBlocks.contains(block) || beaconWireframeBlocks.contains(block);
+        int x = block.getX() - beaconMinX;
+        int y = block.getY() - beaconMinY;
+        int z = block.getZ() - beaconMinZ;
+        if (x < 0 || y < 0 || z < 0 || x >= beaconSpan || y >= beaconSpan || z >= beaconSpan) {
+            return false;
+        }
+        return beaconMembers.get(beaconIndex(x, y, z)) && block.getWorld().equals(beaconWorld);
     }
 
     /**
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queue of pending {@link Block} type changes, applied a few at a time, once per tick.
+ * <p>
+ * Writes to the same block are merged, so only the latest requested {@link Material} is applied. Priority writes are
+ * applied before any other. When applied, a write is skipped if the block already holds the requested material, and
+ * physics are not run, since flags and beacons do not rely on them.
+ * <p>
+ * The queue never loads a chunk synchronously. A write to a block in an unloaded chunk is set aside, the chunk is
+ * requested through {@link World#getChunkAtAsync(int, int)}, and the write is queued again once the chunk has loaded
+ * (see {@link #chunkLoaded(World, int, int)}).
+ * <p>
+ * Not thread-safe: queueing and draining must happen on the main thread.
+ */
+public final class BlockWriteQueue {
+
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+
+    /** Pending writes, keyed by block. */
+    private final Map<Block, Write> pending = new HashMap<>();
+    /** Blocks with a pending priority write, in the order they were queued. */
+    private final Queue<Block> priority = new ArrayDeque<>();
+    /** Blocks with a pending ordinary write, in the order they were queued. */
+    private final Queue<Block> ordinary = new ArrayDeque<>();
+    /** Blocks with a pending write in an unloaded chunk, by world UUID, then packed chunk coordinates. */
+    private final Map<UUID, LongObjectHashMap<List<Block>>> deferred = new HashMap<>();
+
+    /** A pending write. */
+    private static final class Write {
+        /** Material to set the block to. */
+        private Material material;
+        /** True once the block is queued in {@link #priority}. */
+        private boolean isPriority;
+
+        private Write(final Material type, final boolean prioritized) {
+            this.material = type;
+            this.isPriority = prioritized;
+        }
+    }
+
+    /**
+     * Queue a block to be set to a material, replacing any write already pending for it.
+     * @param block the block to change.
+     * @param material the material to set the block to.
+     */
+    public void set(final Block block, final Material material) {
+        set(block, material, false);
+    }
+
+    /**
+     * Queue a block to be set to a material, replacing any write already pending for it.
+     * @param block the block to change.
+     * @param material the material to set the block to.
+     * @param isPriority true to apply the write before every ordinary write.
+     */
+    public void set(final Block block, final Material material, final boolean isPriority) {
+        var write = pending.get(block);
+        if (write == null) {
+            pending.put(block, new Write(material, isPriority));
+            (isPriority ? priority : ordinary).add(block);
+            return;
+        }
+        write.material = material;
+        if (isPriority && !write.isPriority) {
+            // Promote the write. Its stale entry in the ordinary queue is skipped when reached.
+            write.isPriority = true;
+            priority.add(block);
+        }
+    }
+
+    /**
+     * Apply pending writes, priority writes first, until either budget runs out or nothing is left.
+     * @param maxWrites the maximum number of writes to apply.
+     * @param maxNanos the maximum time to spend, in nanoseconds.
+     */
+    public void drain(final int maxWrites, final long maxNanos) {
+        long start = System.nanoTime();
+        var applied = 0;
+        while (applied < maxWrites && hasQueued()) {
+            if (applyNext()) {
+                applied++;
+                if (System.nanoTime() - start >= maxNanos) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Apply every pending write in a loaded chunk, regardless of budget. Writes to unloaded chunks stay deferred. */
+    public void drainAll() {
+        while (hasQueued()) {
+            applyNext();
+        }
+    }
+
+    /** @return the number of blocks with a pending write, including those waiting on a chunk to load. */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Queue the writes which were waiting on a chunk, now that it has loaded.
+     * @param world the chunk's world.
+     * @param chunkX the chunk's x coordinate.
+     * @param chunkZ the chunk's z coordinate.
+     */
+    public void chunkLoaded(final World world, final int chunkX, final int chunkZ) {
+        var chunks = deferred.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        var blocks = chunks.remove(PackedKeys.pack(chunkX, chunkZ));
+        if (blocks == null) {
+            return;
+        }
+        if (chunks.isEmpty()) {
+            deferred.remove(world.getUID());
+        }
+        for (Block block : blocks) {
+            var write = pending.get(block);
+            if (write != null) {
+                (write.isPriority ? priority : ordinary).add(block);
+            }
+        }
+    }
+
+    /**
+     * Run a task once every chunk overlapping an area is loaded. Unloaded chunks are loaded asynchronously, and the
+     * task then runs on the main thread; if they are all loaded already, the task runs immediately.
+     * @param world the area's world.
+     * @param minX the lowest block x coordinate of the area.
+     * @param minZ the lowest block z coordinate of the area.
+     * @param maxX the highest block x coordinate of the area.
+     * @param maxZ the highest block z coordinate of the area.
+     * @param task the task to run.
+     */
+    public static void whenLoaded(final World world, final int minX, final int minZ, final int maxX, final int maxZ,
+                                  final Runnable task) {
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int chunkX = minX >> CHUNK_SHIFT; chunkX <= maxX >> CHUNK_SHIFT; chunkX++) {
+            for (int chunkZ = minZ >> CHUNK_SHIFT; chunkZ <= maxZ >> CHUNK_SHIFT; chunkZ++) {
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    loads.add(world.getChunkAtAsync(chunkX, chunkZ));
+                }
+            }
+        }
+        if (loads.isEmpty()) {
+            task.run();
+        } else {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).thenRun(task);
+        }
+    }
+
+    /** @return true if any write is queued, not counting writes waiting on a chunk. */
+    private boolean hasQueued() {
+        return !priority.isEmpty() || !ordinary.isEmpty();
+    }
+
+    /**
+     * Set a block aside until its chunk loads, and request the chunk if it was not already requested.
+     * @param block the block, in an unloaded chunk.
+     * @param chunkX the chunk's x coordinate.
+     * @param chunkZ the chunk's z coordinate.
+     */
+    private void defer(final Block block, final int chunkX, final int chunkZ) {
+        var world = block.getWorld();
+        var chunks = deferred.computeIfAbsent(world.getUID(), uuid -> new LongObjectHashMap<>());
+        long chunkKey = PackedKeys.pack(chunkX, chunkZ);
+        var blocks = chunks.get(chunkKey);
+        if (blocks == null) {
+            blocks = new ArrayList<>();
+            chunks.put(chunkKey, blocks);
+            world.getChunkAtAsync(chunkX, chunkZ).thenRun(() -> chunkLoaded(world, chunkX, chunkZ));
+        }
+        blocks.add(block);
+    }
+
+    /**
+     * Apply the pending write of the next queued block, taken from the priority queue if it is not empty.
+     * @return true if a block's type was changed.
+     */
+    private boolean applyNext() {
+        boolean fromPriority = !priority.isEmpty();
+        var block = fromPriority ? priority.poll() : ordinary.poll();
+        var write = pending.get(block);
+        if (write == null || (write.isPriority && !fromPriority)) {
+            // Already applied, or promoted to the priority queue.
+            return false;
+        }
+        int chunkX = block.getX() >> CHUNK_SHIFT;
+        int chunkZ = block.getZ() >> CHUNK_SHIFT;
+        if (!block.getWorld().isChunkLoaded(chunkX, chunkZ)) {
+            defer(block, chunkX, chunkZ);
+            return false;
+        }
+        pending.remove(block);
+        if (block.getType() == write.material) {
+            return false;
+        }
+        block.setType(write.material, false);
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import io.github.townyadvanced.flagwar.i18n.LocaleUtil;
+import io.github.townyadvanced.flagwar.i18n.Translate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Buffers war announcements for 'broadcasts.aggregate_ticks', then broadcasts them together.
+ * <p>
+ * Announcements sharing a summary (such as every area of one town attacked by one player) are merged into a single
+ * summary line, stating how many areas it covers. An announcement with nothing to merge with is sent as-is. Each line
+ * goes to its own recipients (see {@link io.github.townyadvanced.flagwar.config.BroadcastScope}): the whole server, or
+ * the union of the recipients of its merged announcements.
+ * <p>
+ * Every line of a flush is rendered once per locale, and each player is sent the lines for them as a single message,
+ * through {@link Messaging#deliver(Map, String)}.
+ * <p>
+ * Not thread-safe: posting and ticking must happen on the main thread.
+ */
+public final class BroadcastAggregator {
+
+    /** Pending announcements, by summary, in the order their first announcement was posted. */
+    private final Map<Summary, Pending> pending = new LinkedHashMap<>();
+    /** Ticks since the oldest pending announcement was posted. */
+    private long pendingTicks;
+
+    /** Translation key and arguments of a summary line; the key pending announcements are merged by. */
+    private static final class Summary {
+        /** Translation key of the summary line. */
+        private final String key;
+        /** Arguments of the summary line, not counting the number of announcements, which comes last. */
+        private final List<Object> args;
+
+        private Summary(final String translationKey, final Object[] arguments) {
+            this.key = translationKey;
+            this.args = Arrays.asList(arguments);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Summary)) {
+                return false;
+            }
+            var other = (Summary) o;
+            return key.equals(other.key) && args.equals(other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, args);
+        }
+    }
+
+    /** The first announcement merged into a summary, how many were merged, and who receives them. */
+    private static final class Pending {
+        /** Translation key of the first announcement. */
+        private final String key;
+        /** Arguments of the first announcement. */
+        private final Object[] args;
+        /** Number of announcements merged. */
+        private int count = 1;
+        /** Recipients of the merged announcements, or null for every online player. */
+        private Set<Player> recipients;
+
+        private Pending(final String translationKey, final Object[] arguments, final Set<Player> audience) {
+            this.key = translationKey;
+            this.args = arguments;
+            this.recipients = audience == null ? null : new HashSet<>(audience);
+        }
+
+        private void merge(final Set<Player> audience) {
+            count++;
+            if (audience == null) {
+                recipients = null;
+            } else if (recipients != null) {
+                recipients.addAll(audience);
+            }
+        }
+    }
+
+    /**
+     * Post a war announcement. It is broadcast at once if 'broadcasts.aggregate_ticks' is 0, and buffered otherwise.
+     * @param recipients the players to send the announcement to, or null for every online player.
+     * @param translationKey translation key of the announcement, sent if nothing is merged with it.
+     * @param args arguments of the announcement.
+     * @param summaryKey translation key of the summary line, sent if several announcements are merged. The number of
+     *                   merged announcements is passed as its last argument.
+     * @param summaryArgs arguments of the summary line. Announcements are merged if their summary key and arguments
+     *                    are equal.
+     */
+    public void post(final Set<Player> recipients, final String translationKey, final Object[] args,
+                     final String summaryKey, final Object... summaryArgs) {
+        var summary = new Summary(summaryKey, summaryArgs);
+        var merged = pending.get(summary);
+        if (merged == null) {
+            pending.put(summary, new Pending(translationKey, args, recipients));
+        } else {
+            merged.merge(recipients);
+        }
+        if (FlagWarConfig.getBroadcastAggregateTicks() <= 0) {
+            flush();
+        }
+    }
+
+    /** Count a tick, and flush the pending announcements once the oldest has waited 'broadcasts.aggregate_ticks'. */
+    public void tick() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (++pendingTicks >= FlagWarConfig.getBroadcastAggregateTicks()) {
+            flush();
+        }
+    }
+
+    /** Broadcast every pending announcement now, merged into summary lines where possible. */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        pendingTicks = 0;
+        Map<Player, String> messages = new HashMap<>();
+        var console = new StringBuilder();
+        for (Map.Entry<Summary, Pending> entry : batch.entrySet()) {
+            var summary = entry.getKey();
+            var merged = entry.getValue();
+            Map<Locale, String> rendered = new HashMap<>();
+            Collection<? extends Player> recipients = merged.recipients == null
+                ? Bukkit.getOnlinePlayers() : merged.recipients;
+            for (Player player : recipients) {
+                if (!player.isOnline()) {
+                    continue;
+                }
+                var line = rendered.computeIfAbsent(LocaleUtil.getLocale(player),
+                    locale -> render(locale, summary, merged));
+                messages.merge(player, line, (lines, next) -> lines + '\n' + next);
+            }
+            if (console.length() > 0) {
+                console.append('\n');
+            }
+            console.append(render(LocaleUtil.getLocale(), summary, merged));
+        }
+        Messaging.deliver(messages, console.toString());
+    }
+
+    /** @return the number of pending summary lines. */
+    public int size() {
+        return pending.size();
+    }
+
+    private static String render(final Locale locale, final Summary summary, final Pending merged) {
+        if (merged.count == 1) {
+            return Translate.fromPrefixed(locale, merged.key, merged.args);
+        }
+        var args = summary.args.toArray(new Object[summary.args.size() + 1]);
+        args[args.length - 1] = merged.count;
+        return Translate.fromPrefixed(locale, summary.key, args);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map keyed by primitive {@code long} values, using linear probing and backward-shift deletion.
+ * <p>
+ * Lookups never box the key, and never allocate. Not thread-safe: writes must be confined to a single thread, and
+ * concurrent readers must use {@link #optimisticGet(long)} under an external validation scheme, such as the optimistic
+ * read mode of a {@link java.util.concurrent.locks.StampedLock}.
+ *
+ * @param <V> the type of the mapped values.
+ */
+public final class LongObjectHashMap<V> {
+
+    /** Initial (and minimum) capacity of the backing arrays. Must be a power of two. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Maximum load factor before the backing arrays are doubled. */
+    private static final float LOAD_FACTOR = 0.5f;
+    /** 64-bit golden ratio, used to scatter packed keys across the table. */
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+    /** Shift applied when folding the high bits of the scrambled key into the low bits. */
+    private static final int FOLD_SHIFT = 32;
+    /** Marker key for unused slots. The real key of the same value is held separately, in {@link #zeroValue}. */
+    private static final long FREE_KEY = 0L;
+
+    /** Keys of the table. A slot is free when it holds {@link #FREE_KEY}. */
+    private long[] keys;
+    /** Values of the table, parallel to {@link #keys}. */
+    private Object[] values;
+    /** Bit mask used to wrap indexes, always {@code keys.length - 1}. */
+    private int mask;
+    /** Number of occupied slots that triggers a resize. */
+    private int threshold;
+    /** Number of mappings, including the one for {@link #FREE_KEY}. */
+    private int size;
+    /** True if a mapping for the {@link #FREE_KEY} exists. */
+    private boolean hasZeroKey;
+    /** Value mapped to the {@link #FREE_KEY}, if {@link #hasZeroKey}. */
+    private V zeroValue;
+
+    /** Constructs an empty map with the default capacity. */
+    public LongObjectHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Scatter a key over the table.
+     * @param key the key to scatter.
+     * @return a well-mixed hash, suitable for masking.
+     */
+    private static int mix(final long key) {
+        long h = key * PHI;
+        return (int) (h ^ (h >>> FOLD_SHIFT));
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Retrieve the value mapped to a key.
+     * @param key the key to look up.
+     * @return the mapped value, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        if (key == FREE_KEY) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        int idx = mix(key) & mask;
+        long k;
+        while ((k = keys[idx]) != FREE_KEY) {
+            if (k == key) {
+                return (V) values[idx];
+            }
+            idx = (idx + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve the value mapped to a key, tolerating a concurrent writer.
+     * <p>
+     * The backing arrays are read once, and probing is bounded, so a racing write can neither throw nor loop forever;
+     * it can however produce a wrong answer. The result must only be trusted once the caller has validated that no
+     * write overlapped the call.
+     *
+     * @param key the key to look up.
+     * @return the mapped value, or null if there is none (or if a racing write was observed).
+     */
+    @SuppressWarnings("unchecked")
+    public V optimisticGet(final long key) {
+        if (key == FREE_KEY) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        long[] ks = keys;
+        Object[] vs = values;
+        if (ks.length != vs.length) {
+            return null;
+        }
+        int m = ks.length - 1;
+        int idx = mix(key) & m;
+        for (var probes = 0; probes < ks.length; probes++) {
+            long k = ks[idx];
+            if (k == FREE_KEY) {
+                return null;
+            }
+            if (k == key) {
+                return (V) vs[idx];
+            }
+            idx = (idx + 1) & m;
+        }
+        return null;
+    }
+
+    /**
+     * Check if a key is mapped.
+     * @param key the key to look up.
+     * @return true if there is a value mapped to the key.
+     */
+    public boolean containsKey(final long key) {
+        if (key == FREE_KEY) {
+            return hasZeroKey;
+        }
+        return get(key) != null;
+    }
+
+    /**
+     * Map a key to a value, replacing any previous mapping.
+     * @param key the key to map.
+     * @param value the (non-null) value to map to.
+     * @return the previously mapped value, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        if (key == FREE_KEY) {
+            V old = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int idx = mix(key) & mask;
+        long k;
+        while ((k = keys[idx]) != FREE_KEY) {
+            if (k == key) {
+                V old = (V) values[idx];
+                values[idx] = value;
+                return old;
+            }
+            idx = (idx + 1) & mask;
+        }
+        keys[idx] = key;
+        values[idx] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Remove the mapping for a key.
+     * @param key the key to unmap.
+     * @return the previously mapped value, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return old;
+        }
+        int idx = mix(key) & mask;
+        long k;
+        while ((k = keys[idx]) != FREE_KEY) {
+            if (k == key) {
+                V old = (V) values[idx];
+                shiftKeys(idx);
+                size--;
+                return old;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Backward-shift deletion: close the gap at a slot by moving later entries of the probe chain into it.
+     * @param gap the slot being emptied.
+     */
+    private void shiftKeys(final int gap) {
+        int last = gap;
+        int slot;
+        long k;
+        while (true) {
+            slot = (last + 1) & mask;
+            while (true) {
+                k = keys[slot];
+                if (k == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    values[last] = null;
+                    return;
+                }
+                int home = mix(k) & mask;
+                // Move the entry only if its home slot does not lie cyclically within (last, slot].
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[slot];
+            last = slot;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(final int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (var i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k != FREE_KEY) {
+                int idx = mix(k) & mask;
+                while (keys[idx] != FREE_KEY) {
+                    idx = (idx + 1) & mask;
+                }
+                keys[idx] = k;
+                values[idx] = oldValues[i];
+            }
+        }
+    }
+
+    /** @return the number of mappings in the map. */
+    public int size() {
+        return size;
+    }
+
+    /** @return true if the map holds no mappings. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Remove all mappings, shrinking the backing arrays back to their default capacity. */
+    public void clear() {
+        if (keys.length == DEFAULT_CAPACITY) {
+            Arrays.fill(keys, FREE_KEY);
+            Arrays.fill(values, null);
+        } else {
+            allocate(DEFAULT_CAPACITY);
+        }
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Run an action over each mapped value. The map must not be modified by the action.
+     * @param action the action to run.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(final Consumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(zeroValue);
+        }
+        for (var i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Add every mapped value to a collection.
+     * @param target the collection to add the values to.
+     */
+    public void collectValues(final Collection<? super V> target) {
+        forEachValue(target::add);
+    }
+}
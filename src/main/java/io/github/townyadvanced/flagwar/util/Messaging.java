@@ -17,10 +17,24 @@
 package io.github.townyadvanced.flagwar.util;
 
 import io.github.townyadvanced.flagwar.FlagWar;
+import io.github.townyadvanced.flagwar.config.AlertStyle;
 import io.github.townyadvanced.flagwar.config.FlagWarConfig;
+import io.github.townyadvanced.flagwar.i18n.LocaleUtil;
+import io.github.townyadvanced.flagwar.i18n.Translate;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,6 +55,95 @@ public final class Messaging {
         recipient.sendMessage(str);
     }
 
+    /**
+     * Send a prefixed translation to a recipient, in the recipient's own locale.
+     * @param recipient the recipient, such as a {@link Player} or the console.
+     * @param translationKey the translation key.
+     * @param args the translation's arguments.
+     */
+    public static void sendPrefixed(@NotNull final CommandSender recipient, @NotNull final String translationKey,
+                                    final Object... args) {
+        recipient.sendMessage(colorize(Translate.fromPrefixed(LocaleUtil.getLocale(recipient), translationKey, args)));
+    }
+
+    /**
+     * Broadcast a prefixed translation to every online {@link Player}, each in their own locale, and log it to the
+     * console in the server's locale.
+     * @param translationKey the translation key.
+     * @param args the translation's arguments.
+     */
+    public static void broadcastPrefixed(@NotNull final String translationKey, final Object... args) {
+        broadcast(locale -> Translate.fromPrefixed(locale, translationKey, args));
+    }
+
+    /**
+     * Broadcast a message to every online {@link Player}, each in their own locale, and log it to the console in the
+     * server's locale. Legacy '&amp;' color codes are translated.
+     * <p>
+     * The message is rendered once per distinct locale, not once per player, so a broadcast costs one map lookup per
+     * player. A message spanning several lines is still sent to each player as a single chat message.
+     * @param renderer renders the message in a given locale.
+     */
+    public static void broadcast(@NotNull final Function<Locale, String> renderer) {
+        Map<Locale, Component> rendered = new HashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.sendMessage(rendered.computeIfAbsent(LocaleUtil.getLocale(player),
+                locale -> toComponent(renderer.apply(locale))));
+        }
+        LOGGER.info(ChatColor.stripColor(colorize(renderer.apply(LocaleUtil.getLocale()))));
+    }
+
+    /**
+     * Send each player their own message, and log a message to the console. Legacy '&amp;' color codes are
+     * translated. Players sent the same text share one deserialized component, and a message spanning several lines
+     * is still sent as a single chat message.
+     * @param messages the message for each player.
+     * @param consoleMessage the message to log, usually rendered in the server's locale.
+     */
+    public static void deliver(@NotNull final Map<Player, String> messages, @NotNull final String consoleMessage) {
+        Map<String, Component> components = new HashMap<>();
+        for (Map.Entry<Player, String> entry : messages.entrySet()) {
+            entry.getKey().sendMessage(components.computeIfAbsent(entry.getValue(), Messaging::toComponent));
+        }
+        LOGGER.info(ChatColor.stripColor(colorize(consoleMessage)));
+    }
+
+    /**
+     * Alert players with a translation, each in their own locale. The alert is rendered once per distinct locale.
+     * @param recipients the players to alert.
+     * @param style how to show the alert. A {@link AlertStyle#TITLE} uses the translation as subtitle, under the
+     *              translation of the key suffixed with '.title'.
+     * @param translationKey the translation key.
+     * @param args the translation's arguments.
+     */
+    public static void alert(@NotNull final Collection<? extends Player> recipients, @NotNull final AlertStyle style,
+                             @NotNull final String translationKey, final Object... args) {
+        Map<Locale, Component> rendered = new HashMap<>();
+        Map<Locale, Title> titles = new HashMap<>();
+        for (Player player : recipients) {
+            var locale = LocaleUtil.getLocale(player);
+            if (style == AlertStyle.CHAT) {
+                player.sendMessage(rendered.computeIfAbsent(locale,
+                    l -> toComponent(Translate.fromPrefixed(l, translationKey, args))));
+            } else if (style == AlertStyle.TITLE) {
+                player.showTitle(titles.computeIfAbsent(locale, l -> Title.title(
+                    toComponent(Translate.from(l, translationKey + ".title")),
+                    toComponent(Translate.from(l, translationKey, args)))));
+            } else {
+                player.sendActionBar(rendered.computeIfAbsent(locale,
+                    l -> toComponent(Translate.from(l, translationKey, args))));
+            }
+        }
+    }
+
+    private static Component toComponent(final String message) {
+        return LegacyComponentSerializer.legacySection().deserialize(colorize(message));
+    }
+
+    private static String colorize(final String message) {
+        return ChatColor.translateAlternateColorCodes('&', message);
+    }
+
     /**
      * Send a debugMessage (FW_DEBUG: [{@link String}]) over the {@link Logger} via {@link Level#WARNING}.
      * <p>
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of the online {@link Player}s of each town, so a town's online members are found without scanning its
+ * residents, or every online player.
+ * <p>
+ * Players are added when they join and removed when they quit, by
+ * {@link io.github.townyadvanced.flagwar.listeners.FlagWarPlayerListener}, and moved when they join or leave a town, by
+ * {@link io.github.townyadvanced.flagwar.listeners.FlagWarCustomListener}.
+ * <p>
+ * Not thread-safe: the index must only be used from the main thread.
+ */
+public final class OnlineMemberIndex {
+
+    /** Online members, by town UUID, then player UUID. */
+    private final Map<UUID, Map<UUID, Player>> towns = new HashMap<>();
+    /** Town of each indexed player, by player UUID. */
+    private final Map<UUID, UUID> memberships = new HashMap<>();
+
+    /**
+     * Index an online player as a member of a town, replacing any previous membership.
+     * @param player the player.
+     * @param townUUID the UUID of the player's town, or null if they have none.
+     */
+    public void update(final Player player, final UUID townUUID) {
+        remove(player.getUniqueId());
+        if (townUUID == null) {
+            return;
+        }
+        towns.computeIfAbsent(townUUID, uuid -> new HashMap<>()).put(player.getUniqueId(), player);
+        memberships.put(player.getUniqueId(), townUUID);
+    }
+
+    /**
+     * Remove a player from the index, such as when they quit, or leave their town.
+     * @param playerUUID the player's UUID.
+     */
+    public void remove(final UUID playerUUID) {
+        var townUUID = memberships.remove(playerUUID);
+        if (townUUID == null) {
+            return;
+        }
+        var members = towns.get(townUUID);
+        if (members != null) {
+            members.remove(playerUUID);
+            if (members.isEmpty()) {
+                towns.remove(townUUID);
+            }
+        }
+    }
+
+    /**
+     * Collect the online members of a town.
+     * @param townUUID the town's UUID.
+     * @param target the collection the members are added to.
+     */
+    public void collect(final UUID townUUID, final Collection<? super Player> target) {
+        var members = towns.get(townUUID);
+        if (members != null) {
+            target.addAll(members.values());
+        }
+    }
+
+    /** @return the number of indexed players. */
+    public int size() {
+        return memberships.size();
+    }
+}
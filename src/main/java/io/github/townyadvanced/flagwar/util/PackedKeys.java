@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+/**
+ * Packs pairs of int coordinates, such as chunk or cell (x, z) coordinates, into the {@code long} keys of a
+ * {@link LongObjectHashMap}: x in the high 32 bits, z in the low 32 bits.
+ */
+public final class PackedKeys {
+
+    /** Number of bits the x coordinate is shifted by, when packed into a key. */
+    private static final int X_SHIFT = 32;
+    /** Mask isolating the z coordinate in a packed key. */
+    private static final long Z_MASK = 0xFFFFFFFFL;
+
+    private PackedKeys() {
+        throw new IllegalStateException("Utility Class");
+    }
+
+    /**
+     * Pack a pair of coordinates into a single key.
+     * @param x the x coordinate.
+     * @param z the z coordinate.
+     * @return the packed key.
+     */
+    public static long pack(final int x, final int z) {
+        return ((long) x << X_SHIFT) | (z & Z_MASK);
+    }
+
+    /**
+     * @param key a key packed by {@link #pack(int, int)}.
+     * @return the x coordinate of the key.
+     */
+    public static int unpackX(final long key) {
+        return (int) (key >> X_SHIFT);
+    }
+
+    /**
+     * @param key a key packed by {@link #pack(int, int)}.
+     * @return the z coordinate of the key.
+     */
+    public static int unpackZ(final long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Grid of the online {@link Player}s, bucketed by world and chunk, so the players near a location are found without
+ * scanning every online player.
+ * <p>
+ * Players are kept up to date by {@link io.github.townyadvanced.flagwar.listeners.FlagWarPlayerListener}, which moves
+ * them when they cross into another chunk, teleport, respawn or change worlds.
+ * <p>
+ * Not thread-safe: the grid must only be used from the main thread.
+ */
+public final class PlayerGrid {
+
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+
+    /** Occupied chunks, by world UUID, then packed chunk coordinates. */
+    private final Map<UUID, LongObjectHashMap<Bucket>> worlds = new HashMap<>();
+    /** Chunk each player is bucketed in, by player UUID. */
+    private final Map<UUID, Position> positions = new HashMap<>();
+
+    /** The players in one chunk. */
+    private static final class Bucket {
+        /** Chunk x coordinate. */
+        private final int chunkX;
+        /** Chunk z coordinate. */
+        private final int chunkZ;
+        /** Players in the chunk. */
+        private final List<Player> players = new ArrayList<>(2);
+
+        private Bucket(final int x, final int z) {
+            this.chunkX = x;
+            this.chunkZ = z;
+        }
+    }
+
+    /** The world and packed chunk coordinates a player is bucketed in. */
+    private static final class Position {
+        /** UUID of the world. */
+        private final UUID world;
+        /** Packed chunk coordinates. */
+        private final long chunkKey;
+
+        private Position(final UUID worldUUID, final long key) {
+            this.world = worldUUID;
+            this.chunkKey = key;
+        }
+    }
+
+    /**
+     * Move a player to the chunk of a location, if they are not already bucketed there.
+     * @param player the player.
+     * @param location where the player is, or is about to be.
+     */
+    public void update(final Player player, final Location location) {
+        var world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+        int chunkX = location.getBlockX() >> CHUNK_SHIFT;
+        int chunkZ = location.getBlockZ() >> CHUNK_SHIFT;
+        long chunkKey = PackedKeys.pack(chunkX, chunkZ);
+        var worldUUID = world.getUID();
+        var position = positions.get(player.getUniqueId());
+        if (position != null) {
+            if (position.chunkKey == chunkKey && position.world.equals(worldUUID)) {
+                return;
+            }
+            unbucket(player, position);
+        }
+        var chunks = worlds.computeIfAbsent(worldUUID, uuid -> new LongObjectHashMap<>());
+        var bucket = chunks.get(chunkKey);
+        if (bucket == null) {
+            bucket = new Bucket(chunkX, chunkZ);
+            chunks.put(chunkKey, bucket);
+        }
+        bucket.players.add(player);
+        positions.put(player.getUniqueId(), new Position(worldUUID, chunkKey));
+    }
+
+    /**
+     * Remove a player from the grid, such as when they leave the server.
+     * @param player the player.
+     */
+    public void remove(final Player player) {
+        var position = positions.remove(player.getUniqueId());
+        if (position != null) {
+            unbucket(player, position);
+        }
+    }
+
+    /**
+     * Collect the players within a square of chunks. Probes each chunk of the square, or scans the world's occupied
+     * chunks instead, whichever is fewer.
+     * @param world the world.
+     * @param chunkX chunk x coordinate of the square's center.
+     * @param chunkZ chunk z coordinate of the square's center.
+     * @param radius the square's radius, in chunks.
+     * @param target the collection the players are added to.
+     */
+    public void collectNear(final World world, final int chunkX, final int chunkZ, final int radius,
+                            final Collection<? super Player> target) {
+        var chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        long side = 2L * radius + 1;
+        if (side * side > chunks.size()) {
+            chunks.forEachValue(bucket -> {
+                if (Math.abs(bucket.chunkX - chunkX) <= radius && Math.abs(bucket.chunkZ - chunkZ) <= radius) {
+                    target.addAll(bucket.players);
+                }
+            });
+            return;
+        }
+        for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+            for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+                var bucket = chunks.get(PackedKeys.pack(x, z));
+                if (bucket != null) {
+                    target.addAll(bucket.players);
+                }
+            }
+        }
+    }
+
+    /** @return the number of players in the grid. */
+    public int size() {
+        return positions.size();
+    }
+
+    private void unbucket(final Player player, final Position position) {
+        var chunks = worlds.get(position.world);
+        if (chunks == null) {
+            return;
+        }
+        var bucket = chunks.get(position.chunkKey);
+        if (bucket == null) {
+            return;
+        }
+        bucket.players.removeIf(p -> p.getUniqueId().equals(player.getUniqueId()));
+        if (bucket.players.isEmpty()) {
+            chunks.remove(position.chunkKey);
+            if (chunks.isEmpty()) {
+                worlds.remove(position.world);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of the exact {@link Block} positions FlagWar protects, grouped by chunk.
+ * <p>
+ * Each protected chunk holds a bitset of its protected positions, so a block in an unprotected chunk is rejected by a
+ * single primitive-keyed lookup, and a block in a protected chunk by a single bit test. Nothing is allocated by
+ * {@link #contains(Block)}.
+ * <p>
+ * Not thread-safe: the index must only be used from the main thread.
+ */
+public final class ProtectedBlockIndex {
+
+    /** Number of bits to shift a block coordinate by, to get its chunk coordinate. */
+    private static final int CHUNK_SHIFT = 4;
+    /** Mask isolating a block coordinate within its chunk. */
+    private static final int LOCAL_MASK = 0xF;
+    /** Mask isolating the y coordinate of a block, as stored in a chunk's bitset. */
+    private static final int Y_MASK = 0xFFF;
+    /** Number of bits the local z coordinate is shifted by, within a chunk's bitset index. */
+    private static final int Z_SHIFT = 4;
+    /** Number of bits the y coordinate is shifted by, within a chunk's bitset index. */
+    private static final int Y_SHIFT = 8;
+
+    /** Protected positions, by world UUID, then packed chunk coordinates. */
+    private final Map<UUID, LongObjectHashMap<BitSet>> worlds = new HashMap<>();
+    /** Number of protected positions, across every world. */
+    private int size;
+
+    /**
+     * Protect a block's position. Protecting a position twice has no further effect.
+     * @param block the block to protect.
+     */
+    public void add(final Block block) {
+        var chunks = worlds.computeIfAbsent(block.getWorld().getUID(), uuid -> new LongObjectHashMap<>());
+        long chunkKey = chunkKey(block);
+        var bits = chunks.get(chunkKey);
+        if (bits == null) {
+            bits = new BitSet();
+            chunks.put(chunkKey, bits);
+        }
+        int index = bitIndex(block);
+        if (!bits.get(index)) {
+            bits.set(index);
+            size++;
+        }
+    }
+
+    /**
+     * Stop protecting a block's position. Chunks left with no protected position are dropped.
+     * @param block the block to unprotect.
+     */
+    public void remove(final Block block) {
+        var worldUUID = block.getWorld().getUID();
+        var chunks = worlds.get(worldUUID);
+        if (chunks == null) {
+            return;
+        }
+        long chunkKey = chunkKey(block);
+        var bits = chunks.get(chunkKey);
+        int index = bitIndex(block);
+        if (bits == null || !bits.get(index)) {
+            return;
+        }
+        bits.clear(index);
+        size--;
+        if (bits.isEmpty()) {
+            chunks.remove(chunkKey);
+            if (chunks.isEmpty()) {
+                worlds.remove(worldUUID);
+            }
+        }
+    }
+
+    /**
+     * @param block a block.
+     * @return true if the block's position is protected.
+     */
+    public boolean contains(final Block block) {
+        if (size == 0) {
+            return false;
+        }
+        var chunks = worlds.get(block.getWorld().getUID());
+        if (chunks == null) {
+            return false;
+        }
+        var bits = chunks.get(chunkKey(block));
+        return bits != null && bits.get(bitIndex(block));
+    }
+
+    /**
+     * Check if any chunk in an area holds a protected position, with one lookup per chunk.
+     * @param world the area's world.
+     * @param minChunkX the lowest chunk x coordinate of the area.
+     * @param minChunkZ the lowest chunk z coordinate of the area.
+     * @param maxChunkX the highest chunk x coordinate of the area.
+     * @param maxChunkZ the highest chunk z coordinate of the area.
+     * @return true if at least one chunk of the area is protected.
+     */
+    public boolean intersects(final World world, final int minChunkX, final int minChunkZ, final int maxChunkX,
+                              final int maxChunkZ) {
+        if (size == 0) {
+            return false;
+        }
+        var chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return false;
+        }
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (chunks.containsKey(PackedKeys.pack(chunkX, chunkZ))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** @return the number of protected positions. */
+    public int size() {
+        return size;
+    }
+
+    private static long chunkKey(final Block block) {
+        return PackedKeys.pack(block.getX() >> CHUNK_SHIFT, block.getZ() >> CHUNK_SHIFT);
+    }
+
+    private static int bitIndex(final Block block) {
+        return ((block.getY() & Y_MASK) << Y_SHIFT) | ((block.getZ() & LOCAL_MASK) << Z_SHIFT)
+            | (block.getX() & LOCAL_MASK);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2021 TownyAdvanced
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.github.townyadvanced.flagwar.util;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical timing wheel, counting time in ticks.
+ * <p>
+ * Timeouts are filed into one of {@link #LEVELS} wheels of {@link #WHEEL_SIZE} slots each, by how far away their
+ * deadline is: level 0 holds the next 64 ticks at a one-tick resolution, level 1 the next 4096 ticks at a 64-tick
+ * resolution, and so on. Entries of a higher level are cascaded down one level each time the level below wraps around.
+ * Each slot is an intrusive doubly-linked list, so scheduling and cancelling a timeout are both constant-time, and a
+ * call to {@link #tick()} only touches the timeouts which are due (plus, every 64 ticks, one slot's worth of cascade).
+ * <p>
+ * Not thread-safe: scheduling, cancelling and ticking must all happen on the same thread.
+ */
+public final class TimingWheel {
+
+    /** Number of bits of the tick count consumed by each level. */
+    private static final int WHEEL_BITS = 6;
+    /** Number of slots per level. */
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    /** Mask isolating a slot index. */
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    /** Number of levels. */
+    private static final int LEVELS = 4;
+    /** Furthest deadline (in ticks from now) the wheels can hold. Timeouts beyond it are re-filed when cascaded. */
+    private static final long MAX_SPAN = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    /** Heads of the slot lists, by level, then slot. */
+    private final Timeout[][] slots = new Timeout[LEVELS][WHEEL_SIZE];
+    /** Logger used to report tasks which threw. */
+    private final Logger logger;
+    /** Number of ticks elapsed since the wheel was created. */
+    private long now;
+    /** Number of pending timeouts. */
+    private int size;
+
+    /**
+     * Constructs an empty timing wheel.
+     * @param taskLogger the {@link Logger} to report failing tasks to.
+     */
+    public TimingWheel(final Logger taskLogger) {
+        this.logger = taskLogger;
+    }
+
+    /** A task scheduled on the wheel, which can be cancelled. */
+    public final class Timeout {
+        /** Task to run when the timeout expires. */
+        private final Runnable task;
+        /** Ticks between runs for a repeating timeout, or 0 for a one-off timeout. */
+        private final long period;
+        /** Tick the timeout expires at. */
+        private long deadline;
+        /** Level of the slot the timeout is filed in. */
+        private int level;
+        /** Index of the slot the timeout is filed in. */
+        private int slot;
+        /** Previous timeout in the same slot. */
+        private Timeout prev;
+        /** Next timeout in the same slot. */
+        private Timeout next;
+        /** True while the timeout is filed in a slot. */
+        private boolean pending;
+        /** True once the timeout has been cancelled. */
+        private boolean cancelled;
+
+        private Timeout(final Runnable runnable, final long deadlineTick, final long periodTicks) {
+            this.task = runnable;
+            this.deadline = deadlineTick;
+            this.period = periodTicks;
+        }
+
+        /** Cancel the timeout. A repeating timeout may cancel itself from within its own task. */
+        public void cancel() {
+            cancelled = true;
+            if (pending) {
+                unlink(this);
+            }
+        }
+
+        /** @return true if the timeout has been cancelled. */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Schedule a task to run once.
+     * @param task the task to run.
+     * @param delay the number of ticks to wait before running the task. Values below 1 are treated as 1.
+     * @return a handle to cancel the task with.
+     */
+    public Timeout schedule(final Runnable task, final long delay) {
+        return schedule(task, delay, 0L);
+    }
+
+    /**
+     * Schedule a task to run repeatedly, until cancelled.
+     * @param task the task to run.
+     * @param delay the number of ticks to wait before the first run. Values below 1 are treated as 1.
+     * @param period the number of ticks between runs, or 0 to run the task only once.
+     * @return a handle to cancel the task with.
+     */
+    public Timeout schedule(final Runnable task, final long delay, final long period) {
+        var timeout = new Timeout(task, now + Math.max(1L, delay), Math.max(0L, period));
+        insert(timeout);
+        return timeout;
+    }
+
+    /** Advance the wheel by one tick, then run every task which is due. */
+    public void tick() {
+        now++;
+        cascade();
+        int index = (int) (now & WHEEL_MASK);
+        Timeout timeout;
+        while ((timeout = slots[0][index]) != null) {
+            unlink(timeout);
+            run(timeout);
+            if (timeout.period > 0 && !timeout.cancelled) {
+                timeout.deadline = now + timeout.period;
+                insert(timeout);
+            }
+        }
+    }
+
+    /** @return the number of pending timeouts. */
+    public int size() {
+        return size;
+    }
+
+    /** Every time a level wraps around, re-file the current slot of the level above it. */
+    private void cascade() {
+        for (var level = 1; level < LEVELS; level++) {
+            if (((now >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+                return;
+            }
+            int index = (int) ((now >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            Timeout timeout;
+            while ((timeout = slots[level][index]) != null) {
+                unlink(timeout);
+                insert(timeout);
+            }
+        }
+    }
+
+    private void run(final Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Timed task threw an exception", e);
+        }
+    }
+
+    /**
+     * File a timeout into the slot covering its deadline, at the finest level able to hold it.
+     * @param timeout the timeout to file.
+     */
+    private void insert(final Timeout timeout) {
+        long ticks = Math.min(Math.max(0L, timeout.deadline - now), MAX_SPAN);
+        long when = now + ticks;
+        var level = 0;
+        while (level < LEVELS - 1 && ticks >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((when >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        timeout.level = level;
+        timeout.slot = index;
+        timeout.prev = null;
+        timeout.next = slots[level][index];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        slots[level][index] = timeout;
+        timeout.pending = true;
+        size++;
+    }
+
+    /**
+     * Remove a timeout from its slot.
+     * @param timeout the (pending) timeout to remove.
+     */
+    private void unlink(final Timeout timeout) {
+        if (timeout.prev == null) {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.pending = false;
+        size--;
+    }
+}